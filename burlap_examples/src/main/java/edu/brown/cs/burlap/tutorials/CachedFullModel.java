@@ -0,0 +1,189 @@
+package edu.brown.cs.burlap.tutorials;
+
+import burlap.mdp.core.action.Action;
+import burlap.mdp.core.state.State;
+import burlap.mdp.singleagent.environment.EnvironmentOutcome;
+import burlap.mdp.singleagent.model.FullModel;
+import burlap.mdp.singleagent.model.TransitionProb;
+import burlap.statehashing.HashableState;
+import burlap.statehashing.HashableStateFactory;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+/**
+ * A {@link FullModel} decorator that memoizes the outcome list of each state-action pair, together with
+ * the hashed successor states, so that planners which repeatedly back up the same states do not make the
+ * source model regenerate (and copy) identical outcomes every sweep. The cache holds at most maxOutcomes
+ * transitions and evicts the least recently used state-action pairs beyond that. Sampling and terminal
+ * checks are passed through to the source model.
+ * <p>
+ * Cached lists and the states in them are shared between callers, so they must not be modified.
+ * This class is not thread safe.
+ */
+public class CachedFullModel implements FullModel {
+
+	protected FullModel sourceModel;
+	protected HashableStateFactory hashingFactory;
+	protected int maxOutcomes;
+
+	protected LinkedHashMap<SAKey, Outcomes> cache;
+	protected int numCachedOutcomes;
+
+	protected long hits;
+	protected long misses;
+	protected long evictions;
+
+
+	/**
+	 * @param sourceModel the model whose transitions are cached
+	 * @param hashingFactory the hashing factory used to key states and hash successors
+	 * @param maxOutcomes the maximum number of transitions held in the cache; -1 for no limit
+	 */
+	public CachedFullModel(FullModel sourceModel, HashableStateFactory hashingFactory, int maxOutcomes) {
+		this.sourceModel = sourceModel;
+		this.hashingFactory = hashingFactory;
+		this.maxOutcomes = maxOutcomes;
+		this.cache = new LinkedHashMap<SAKey, Outcomes>(16, 0.75f, true);
+	}
+
+	@Override
+	public List<TransitionProb> transitions(State s, Action a) {
+		return this.outcomes(this.hashingFactory.hashState(s), a).transitions;
+	}
+
+	/**
+	 * Returns the cached outcomes of an already hashed state and action, computing them on a miss.
+	 */
+	public Outcomes outcomes(HashableState sh, Action a){
+		SAKey key = new SAKey(sh, a);
+		Outcomes o = this.cache.get(key);
+		if(o != null){
+			this.hits++;
+			return o;
+		}
+
+		this.misses++;
+		List<TransitionProb> tps = this.sourceModel.transitions(sh.s(), a);
+		HashableState [] hashed = new HashableState[tps.size()];
+		for(int i = 0; i < hashed.length; i++){
+			hashed[i] = this.hashingFactory.hashState(tps.get(i).eo.op);
+		}
+		o = new Outcomes(tps, hashed);
+		this.cache.put(key, o);
+		this.numCachedOutcomes += hashed.length;
+		this.evict();
+		return o;
+	}
+
+	protected void evict(){
+		if(this.maxOutcomes == -1){
+			return;
+		}
+		//iteration order is least recently used first; always keep the entry just added
+		Iterator<Outcomes> it = this.cache.values().iterator();
+		while(this.numCachedOutcomes > this.maxOutcomes && this.cache.size() > 1){
+			Outcomes o = it.next();
+			this.numCachedOutcomes -= o.hashedSuccessors.length;
+			it.remove();
+			this.evictions++;
+		}
+	}
+
+	@Override
+	public EnvironmentOutcome sample(State s, Action a) {
+		return this.sourceModel.sample(s, a);
+	}
+
+	@Override
+	public boolean terminal(State s) {
+		return this.sourceModel.terminal(s);
+	}
+
+	public FullModel getSourceModel() {
+		return sourceModel;
+	}
+
+	public HashableStateFactory getHashingFactory() {
+		return hashingFactory;
+	}
+
+	public long getHits() {
+		return hits;
+	}
+
+	public long getMisses() {
+		return misses;
+	}
+
+	public long getEvictions() {
+		return evictions;
+	}
+
+	public int getNumCachedOutcomes() {
+		return numCachedOutcomes;
+	}
+
+	public void resetStatistics(){
+		this.hits = 0;
+		this.misses = 0;
+		this.evictions = 0;
+	}
+
+	public void clearCache(){
+		this.cache.clear();
+		this.numCachedOutcomes = 0;
+	}
+
+	@Override
+	public String toString() {
+		return "hits=" + hits + ", misses=" + misses + ", evictions=" + evictions + ", cached=" + numCachedOutcomes;
+	}
+
+
+	/**
+	 * The cached outcome list of a state-action pair and the hashed successor state of each outcome.
+	 */
+	public static class Outcomes {
+
+		public final List<TransitionProb> transitions;
+		public final HashableState [] hashedSuccessors;
+
+		public Outcomes(List<TransitionProb> transitions, HashableState [] hashedSuccessors) {
+			this.transitions = transitions;
+			this.hashedSuccessors = hashedSuccessors;
+		}
+	}
+
+	protected static class SAKey {
+
+		HashableState sh;
+		Action a;
+		int hash;
+
+		public SAKey(HashableState sh, Action a) {
+			this.sh = sh;
+			this.a = a;
+			this.hash = 31 * sh.hashCode() + a.hashCode();
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if(this == o){
+				return true;
+			}
+			if(!(o instanceof SAKey)){
+				return false;
+			}
+			SAKey that = (SAKey)o;
+			return this.hash == that.hash && this.sh.equals(that.sh) && this.a.equals(that.a);
+		}
+
+		@Override
+		public int hashCode() {
+			return this.hash;
+		}
+	}
+
+}
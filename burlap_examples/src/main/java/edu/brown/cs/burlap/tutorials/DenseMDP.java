@@ -0,0 +1,471 @@
+package edu.brown.cs.burlap.tutorials;
+
+import burlap.mdp.core.action.Action;
+import burlap.mdp.core.action.ActionType;
+import burlap.mdp.core.action.ActionUtils;
+import burlap.mdp.core.state.State;
+import burlap.mdp.singleagent.SADomain;
+import burlap.mdp.singleagent.model.FullModel;
+import burlap.mdp.singleagent.model.SampleModel;
+import burlap.mdp.singleagent.model.TransitionProb;
+import burlap.statehashing.HashableState;
+import burlap.statehashing.HashableStateFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A compiled, int indexed copy of the states reachable from a seed state and their transition dynamics.
+ * States are numbered 0..n-1 in the order they were discovered, state-action pairs are stored contiguously
+ * per state, and the outcomes of each state-action pair are stored contiguously in compressed sparse row
+ * form as parallel successor, probability and reward arrays. Once compiled, Bellman backups are plain
+ * array loops that do not touch the model, the hashing factory or the allocator.
+ */
+public class DenseMDP {
+
+	protected HashableStateFactory hashingFactory;
+
+	//state index
+	protected Map<HashableState, Integer> stateIds;
+	protected HashableState [] states;
+	protected boolean [] terminal;
+	protected int numStates;
+
+	//state-action pairs of state i are in [saOffsets[i], saOffsets[i+1])
+	protected int [] saOffsets;
+	protected Action [] saActions;
+	protected int numSA;
+
+	//outcomes of state-action pair j are in [outcomeOffsets[j], outcomeOffsets[j+1])
+	protected int [] outcomeOffsets;
+	protected int [] successors;
+	protected double [] probs;
+	protected double [] rewards;
+	protected int numOutcomes;
+
+	//distinct predecessor states of state i are in [predOffsets[i], predOffsets[i+1]); built on demand
+	protected int [] predOffsets;
+	protected int [] preds;
+
+
+	/**
+	 * Enumerates all states reachable from the seed state and compiles their transitions.
+	 * @param domain the domain, which must provide a {@link FullModel}
+	 * @param hashingFactory the hashing factory used to identify states during compilation
+	 * @param seedState the state from which reachability is computed
+	 */
+	public DenseMDP(SADomain domain, HashableStateFactory hashingFactory, State seedState){
+		this(fullModel(domain.getModel()), domain.getActionTypes(), hashingFactory, seedState);
+	}
+
+	/**
+	 * Enumerates all states reachable from the seed state under the given model and action types
+	 * and compiles their transitions.
+	 * @param model the model used to enumerate transitions
+	 * @param actionTypes the action types whose actions are compiled for each state
+	 * @param hashingFactory the hashing factory used to identify states during compilation
+	 * @param seedState the state from which reachability is computed
+	 */
+	public DenseMDP(FullModel model, List<ActionType> actionTypes, HashableStateFactory hashingFactory, State seedState){
+
+		this.hashingFactory = hashingFactory;
+		this.stateIds = new HashMap<HashableState, Integer>();
+		this.states = new HashableState[64];
+		this.terminal = new boolean[64];
+		this.saOffsets = new int[65];
+		this.saActions = new Action[256];
+		this.outcomeOffsets = new int[257];
+		this.successors = new int[1024];
+		this.probs = new double[1024];
+		this.rewards = new double[1024];
+
+		this.addState(this.hashingFactory.hashState(seedState));
+		this.compile(model, actionTypes, 0);
+	}
+
+	protected static FullModel fullModel(SampleModel model){
+		if(!(model instanceof FullModel)){
+			throw new RuntimeException("DenseMDP requires a FullModel to enumerate transitions.");
+		}
+		return (FullModel)model;
+	}
+
+
+	/**
+	 * Adds the states reachable from another seed state, under the same model and action types used so far.
+	 * Only the newly discovered states are expanded: the existing states keep their ids and rows, and the
+	 * new states are numbered after them. The predecessor index, if built, is rebuilt on its next use.
+	 * @return the id of the seed state
+	 */
+	public int extend(FullModel model, List<ActionType> actionTypes, State seedState){
+		int firstNew = this.numStates;
+		int id = this.addState(this.hashingFactory.hashState(seedState));
+		if(id == firstNew){
+			this.compile(model, actionTypes, firstNew);
+			this.predOffsets = null;
+			this.preds = null;
+		}
+		return id;
+	}
+
+	/**
+	 * Breadth first enumeration of the reachable states, expanding states from id firstUnexpanded on.
+	 * States are expanded in id order, so the state-action and outcome rows can be appended as each
+	 * state is expanded.
+	 */
+	protected void compile(FullModel model, List<ActionType> actionTypes, int firstUnexpanded){
+
+		for(int i = firstUnexpanded; i < this.numStates; i++){
+
+			State s = this.states[i].s();
+			this.terminal[i] = model.terminal(s);
+			this.saOffsets[i] = this.numSA;
+
+			//terminal states have no actions; their value is always 0
+			if(this.terminal[i]){
+				continue;
+			}
+
+			List<Action> actions = ActionUtils.allApplicableActionsForTypes(actionTypes, s);
+			for(Action a : actions){
+
+				this.ensureSACapacity(this.numSA + 1);
+				this.saActions[this.numSA] = a;
+				this.outcomeOffsets[this.numSA] = this.numOutcomes;
+
+				List<TransitionProb> tps = model.transitions(s, a);
+				this.ensureOutcomeCapacity(this.numOutcomes + tps.size());
+				for(TransitionProb tp : tps){
+					int sp = this.addState(this.hashingFactory.hashState(tp.eo.op));
+					this.successors[this.numOutcomes] = sp;
+					this.probs[this.numOutcomes] = tp.p;
+					this.rewards[this.numOutcomes] = tp.eo.r;
+					this.numOutcomes++;
+				}
+
+				this.numSA++;
+			}
+
+		}
+
+		//close off the final rows
+		this.saOffsets[this.numStates] = this.numSA;
+		this.outcomeOffsets[this.numSA] = this.numOutcomes;
+
+	}
+
+	protected int addState(HashableState hs){
+		Integer id = this.stateIds.get(hs);
+		if(id != null){
+			return id;
+		}
+		if(this.numStates + 1 >= this.states.length){
+			int ncap = this.states.length * 2;
+			this.states = Arrays.copyOf(this.states, ncap);
+			this.terminal = Arrays.copyOf(this.terminal, ncap);
+			this.saOffsets = Arrays.copyOf(this.saOffsets, ncap + 1);
+		}
+		int nid = this.numStates;
+		this.states[nid] = hs;
+		this.stateIds.put(hs, nid);
+		this.numStates++;
+		return nid;
+	}
+
+	protected void ensureSACapacity(int size){
+		if(size >= this.saActions.length){
+			int ncap = Math.max(size + 1, this.saActions.length * 2);
+			this.saActions = Arrays.copyOf(this.saActions, ncap);
+			this.outcomeOffsets = Arrays.copyOf(this.outcomeOffsets, ncap + 1);
+		}
+	}
+
+	protected void ensureOutcomeCapacity(int size){
+		if(size > this.successors.length){
+			int ncap = Math.max(size, this.successors.length * 2);
+			this.successors = Arrays.copyOf(this.successors, ncap);
+			this.probs = Arrays.copyOf(this.probs, ncap);
+			this.rewards = Arrays.copyOf(this.rewards, ncap);
+		}
+	}
+
+
+	public int numStates(){
+		return this.numStates;
+	}
+
+	public int numStateActions(){
+		return this.numSA;
+	}
+
+	public int numOutcomes(){
+		return this.numOutcomes;
+	}
+
+	public HashableStateFactory getHashingFactory(){
+		return this.hashingFactory;
+	}
+
+	/**
+	 * Returns the id of a state or -1 if the state was not reachable from the seed state.
+	 */
+	public int stateId(State s){
+		return this.stateId(this.hashingFactory.hashState(s));
+	}
+
+	public int stateId(HashableState hs){
+		Integer id = this.stateIds.get(hs);
+		if(id == null){
+			return -1;
+		}
+		return id;
+	}
+
+	public HashableState hashedState(int s){
+		return this.states[s];
+	}
+
+	public State state(int s){
+		return this.states[s].s();
+	}
+
+	public boolean isTerminal(int s){
+		return this.terminal[s];
+	}
+
+	/**
+	 * First state-action index of state s.
+	 */
+	public int saStart(int s){
+		return this.saOffsets[s];
+	}
+
+	/**
+	 * One past the last state-action index of state s.
+	 */
+	public int saEnd(int s){
+		return this.saOffsets[s+1];
+	}
+
+	public Action action(int sa){
+		return this.saActions[sa];
+	}
+
+	/**
+	 * Returns the state-action index of action a in state s, or -1 if a is not applicable in s.
+	 */
+	public int saIndex(int s, Action a){
+		int end = this.saOffsets[s+1];
+		for(int j = this.saOffsets[s]; j < end; j++){
+			if(this.saActions[j].equals(a)){
+				return j;
+			}
+		}
+		return -1;
+	}
+
+	public int outcomeStart(int sa){
+		return this.outcomeOffsets[sa];
+	}
+
+	public int outcomeEnd(int sa){
+		return this.outcomeOffsets[sa+1];
+	}
+
+	public int successor(int o){
+		return this.successors[o];
+	}
+
+	public double probability(int o){
+		return this.probs[o];
+	}
+
+	public double reward(int o){
+		return this.rewards[o];
+	}
+
+
+	/**
+	 * Builds the predecessor index if it has not been built yet. A state appears at most once
+	 * in the predecessor list of each of its successors.
+	 */
+	public void ensurePredecessors(){
+		if(this.predOffsets != null){
+			return;
+		}
+
+		//mark[t] == s+1 when s has already been counted as a predecessor of t
+		int [] mark = new int[this.numStates];
+		int [] counts = new int[this.numStates + 1];
+		for(int s = 0; s < this.numStates; s++){
+			for(int o = this.outcomeOffsets[this.saOffsets[s]]; o < this.outcomeOffsets[this.saOffsets[s+1]]; o++){
+				int t = this.successors[o];
+				if(mark[t] != s+1){
+					mark[t] = s+1;
+					counts[t+1]++;
+				}
+			}
+		}
+		for(int t = 0; t < this.numStates; t++){
+			counts[t+1] += counts[t];
+		}
+
+		int [] fill = Arrays.copyOf(counts, this.numStates);
+		int [] p = new int[counts[this.numStates]];
+		Arrays.fill(mark, 0);
+		for(int s = 0; s < this.numStates; s++){
+			for(int o = this.outcomeOffsets[this.saOffsets[s]]; o < this.outcomeOffsets[this.saOffsets[s+1]]; o++){
+				int t = this.successors[o];
+				if(mark[t] != s+1){
+					mark[t] = s+1;
+					p[fill[t]++] = s;
+				}
+			}
+		}
+
+		this.predOffsets = counts;
+		this.preds = p;
+	}
+
+	public int predStart(int s){
+		this.ensurePredecessors();
+		return this.predOffsets[s];
+	}
+
+	public int predEnd(int s){
+		this.ensurePredecessors();
+		return this.predOffsets[s+1];
+	}
+
+	public int predecessor(int i){
+		return this.preds[i];
+	}
+
+
+	/**
+	 * Decomposes the state graph into strongly connected components with an iterative version of
+	 * Tarjan's algorithm. Components are returned in reverse topological order: every successor of a
+	 * state in a component lies either in the same component or in one that appears earlier in the list.
+	 */
+	public List<int []> stronglyConnectedComponents(){
+
+		int n = this.numStates;
+		int [] index = new int[n];
+		int [] low = new int[n];
+		boolean [] onStack = new boolean[n];
+		int [] stack = new int[n];
+		int sp = 0;
+		int [] callStack = new int[n];
+		int [] cursor = new int[n];
+		int csp = 0;
+		int counter = 0;
+		Arrays.fill(index, -1);
+
+		List<int []> components = new ArrayList<int[]>();
+
+		for(int root = 0; root < n; root++){
+			if(index[root] != -1){
+				continue;
+			}
+
+			index[root] = low[root] = counter++;
+			stack[sp++] = root;
+			onStack[root] = true;
+			callStack[csp] = root;
+			cursor[csp] = this.outcomeOffsets[this.saOffsets[root]];
+			csp++;
+
+			while(csp > 0){
+				int v = callStack[csp-1];
+				int o = cursor[csp-1];
+				if(o < this.outcomeOffsets[this.saOffsets[v+1]]){
+					cursor[csp-1]++;
+					int w = this.successors[o];
+					if(index[w] == -1){
+						//descend into w
+						index[w] = low[w] = counter++;
+						stack[sp++] = w;
+						onStack[w] = true;
+						callStack[csp] = w;
+						cursor[csp] = this.outcomeOffsets[this.saOffsets[w]];
+						csp++;
+					}
+					else if(onStack[w]){
+						low[v] = Math.min(low[v], index[w]);
+					}
+				}
+				else{
+					//all edges of v explored; return to the caller
+					csp--;
+					if(csp > 0){
+						int u = callStack[csp-1];
+						low[u] = Math.min(low[u], low[v]);
+					}
+					if(low[v] == index[v]){
+						//v is the root of a component; pop it off the stack
+						int start = sp;
+						do{
+							start--;
+						}while(stack[start] != v);
+						int [] component = Arrays.copyOfRange(stack, start, sp);
+						for(int w : component){
+							onStack[w] = false;
+						}
+						sp = start;
+						components.add(component);
+					}
+				}
+			}
+		}
+
+		return components;
+	}
+
+
+	/**
+	 * Bellman backup of state-action pair sa against the value array v.
+	 */
+	public double qValue(int sa, double [] v, double gamma){
+		double q = 0.;
+		int end = this.outcomeOffsets[sa+1];
+		for(int o = this.outcomeOffsets[sa]; o < end; o++){
+			q += this.probs[o] * (this.rewards[o] + gamma * v[this.successors[o]]);
+		}
+		return q;
+	}
+
+	/**
+	 * Bellman optimality backup of state s against the value array v. Terminal states
+	 * and states without applicable actions have value 0.
+	 */
+	public double maxQ(int s, double [] v, double gamma){
+		int start = this.saOffsets[s];
+		int end = this.saOffsets[s+1];
+		if(start == end){
+			return 0.;
+		}
+		double max = Double.NEGATIVE_INFINITY;
+		for(int j = start; j < end; j++){
+			double q = this.qValue(j, v, gamma);
+			if(q > max){
+				max = q;
+			}
+		}
+		return max;
+	}
+
+	/**
+	 * Returns the list of all states in id order.
+	 */
+	public List<State> allStates(){
+		List<State> res = new ArrayList<State>(this.numStates);
+		for(int i = 0; i < this.numStates; i++){
+			res.add(this.states[i].s());
+		}
+		return res;
+	}
+
+}
@@ -0,0 +1,220 @@
+package edu.brown.cs.burlap.tutorials;
+
+import burlap.behavior.policy.GreedyQPolicy;
+import burlap.behavior.policy.Policy;
+import burlap.behavior.policy.PolicyUtils;
+import burlap.behavior.singleagent.Episode;
+import burlap.behavior.singleagent.MDPSolver;
+import burlap.behavior.singleagent.auxiliary.EpisodeSequenceVisualizer;
+import burlap.behavior.singleagent.planning.Planner;
+import burlap.behavior.valuefunction.ConstantValueFunction;
+import burlap.behavior.valuefunction.QProvider;
+import burlap.behavior.valuefunction.QValue;
+import burlap.behavior.valuefunction.ValueFunction;
+import burlap.domain.singleagent.gridworld.GridWorldDomain;
+import burlap.domain.singleagent.gridworld.GridWorldTerminalFunction;
+import burlap.domain.singleagent.gridworld.GridWorldVisualizer;
+import burlap.domain.singleagent.gridworld.state.GridAgent;
+import burlap.domain.singleagent.gridworld.state.GridWorldState;
+import burlap.mdp.core.action.Action;
+import burlap.mdp.core.state.State;
+import burlap.mdp.singleagent.SADomain;
+import burlap.mdp.singleagent.model.FullModel;
+import burlap.mdp.singleagent.model.TransitionProb;
+import burlap.statehashing.HashableStateFactory;
+import burlap.statehashing.simple.SimpleHashableStateFactory;
+import burlap.visualizer.Visualizer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Value iteration with the same in-place sweeps as {@link VITutorial} and single-threaded
+ * {@link VITrafficLights}, but which first compiles the reachable state space into a {@link DenseMDP}
+ * and then runs its sweeps over a plain double array. States are hashed once, during compilation, instead of once per successor per sweep.
+ */
+public class DenseValueIteration extends MDPSolver implements Planner, QProvider {
+
+	protected DenseMDP mdp;
+	protected double [] values;
+	protected ValueFunction vinit;
+	protected int numIterations;
+
+
+	public DenseValueIteration(SADomain domain, double gamma,
+							   HashableStateFactory hashingFactory, ValueFunction vinit, int numIterations){
+		this.solverInit(domain, gamma, hashingFactory);
+		this.vinit = vinit;
+		this.numIterations = numIterations;
+	}
+
+	/**
+	 * Returns the compiled MDP of the last planning call, or null if no planning has been performed.
+	 */
+	public DenseMDP getDenseMDP(){
+		return this.mdp;
+	}
+
+	@Override
+	public double value(State s) {
+		if(this.mdp != null){
+			int id = this.mdp.stateId(s);
+			if(id != -1){
+				return this.values[id];
+			}
+		}
+		return this.vinit.value(s);
+	}
+
+	@Override
+	public List<QValue> qValues(State s) {
+		if(this.mdp != null){
+			int id = this.mdp.stateId(s);
+			if(id != -1 && !this.mdp.isTerminal(id)){
+				//use the compiled actions and outcomes directly
+				int start = this.mdp.saStart(id);
+				int end = this.mdp.saEnd(id);
+				List<QValue> qs = new ArrayList<QValue>(end - start);
+				for(int j = start; j < end; j++){
+					qs.add(new QValue(s, this.mdp.action(j), this.mdp.qValue(j, this.values, this.gamma)));
+				}
+				return qs;
+			}
+		}
+
+		List<Action> applicableActions = this.applicableActions(s);
+		List<QValue> qs = new ArrayList<QValue>(applicableActions.size());
+		for(Action a : applicableActions){
+			qs.add(new QValue(s, a, this.qValue(s, a)));
+		}
+		return qs;
+	}
+
+	@Override
+	public double qValue(State s, Action a) {
+
+		if(this.mdp != null){
+			int id = this.mdp.stateId(s);
+			if(id != -1){
+				if(this.mdp.isTerminal(id)){
+					return 0.;
+				}
+				int sa = this.mdp.saIndex(id, a);
+				if(sa != -1){
+					return this.mdp.qValue(sa, this.values, this.gamma);
+				}
+			}
+		}
+
+		if(this.model.terminal(s)){
+			return 0.;
+		}
+
+		//state outside of the compiled region; fall back on a model backup
+		List<TransitionProb> tps = ((FullModel)this.model).transitions(s, a);
+		double q = 0.;
+		for(TransitionProb tp : tps){
+			q += tp.p * (tp.eo.r + this.gamma * this.value(tp.eo.op));
+		}
+
+		return q;
+	}
+
+	@Override
+	public GreedyQPolicy planFromState(State initialState) {
+
+		if(this.mdp != null && this.mdp.stateId(initialState) != -1){
+			return new GreedyQPolicy(this); //already performed planning here!
+		}
+
+		//if the state is new, then compile all states reachable from it first
+		this.compileFrom(initialState);
+
+		//now perform multiple iterations over the whole state space
+		int n = this.mdp.numStates();
+		for(int i = 0; i < this.numIterations; i++){
+			for(int s = 0; s < n; s++){
+				this.values[s] = this.mdp.maxQ(s, this.values, this.gamma);
+			}
+		}
+
+		return new GreedyQPolicy(this);
+
+	}
+
+	/**
+	 * Freezes the greedy policy over all compiled states into a table, so that querying it
+	 * no longer requires a Bellman backup for each action.
+	 */
+	public GreedyPolicyTable frozenPolicy() {
+		GreedyPolicyTable policy = new GreedyPolicyTable(this.hashingFactory);
+		if(this.mdp == null){
+			return policy; //nothing has been planned yet
+		}
+		for(int s = 0; s < this.mdp.numStates(); s++){
+			policy.put(this.mdp.hashedState(s), this.qValues(this.mdp.state(s)));
+		}
+		return policy;
+	}
+
+	/**
+	 * Compiles all states reachable from the seed state that previous calls have not compiled, and
+	 * initializes their values. Previously compiled states keep their ids, rows and values.
+	 */
+	protected void compileFrom(State seedState){
+		int numOld = 0;
+		if(this.mdp == null){
+			this.mdp = new DenseMDP((FullModel)this.model, this.actionTypes, this.hashingFactory, seedState);
+			this.values = new double[this.mdp.numStates()];
+		}
+		else{
+			numOld = this.mdp.numStates();
+			this.mdp.extend((FullModel)this.model, this.actionTypes, seedState);
+			this.values = Arrays.copyOf(this.values, this.mdp.numStates());
+		}
+		for(int i = numOld; i < this.values.length; i++){
+			this.values[i] = this.vinit.value(this.mdp.state(i));
+		}
+	}
+
+	@Override
+	public void resetSolver() {
+		this.mdp = null;
+		this.values = null;
+	}
+
+
+	public static void main(String [] args){
+
+		GridWorldDomain gwd = new GridWorldDomain(11, 11);
+		gwd.setTf(new GridWorldTerminalFunction(10, 10));
+		gwd.setMapToFourRooms();
+
+		//only go in intended directon 80% of the time
+		gwd.setProbSucceedTransitionDynamics(0.8);
+
+		SADomain domain = gwd.generateDomain();
+
+		//get initial state with agent in 0,0
+		State s = new GridWorldState(new GridAgent(0, 0));
+
+		//same settings as VITutorial, but sweeps run over the compiled arrays
+		DenseValueIteration vi = new DenseValueIteration(domain, 0.99, new SimpleHashableStateFactory(),
+				new ConstantValueFunction(0.0), 30);
+
+		//run planning from our initial state
+		Policy p = vi.planFromState(s);
+		System.out.println("Compiled " + vi.getDenseMDP().numStates() + " states, "
+				+ vi.getDenseMDP().numStateActions() + " state-actions, "
+				+ vi.getDenseMDP().numOutcomes() + " outcomes");
+
+		//evaluate the policy with one roll out visualize the trajectory
+		Episode ea = PolicyUtils.rollout(p, s, domain.getModel());
+
+		Visualizer v = GridWorldVisualizer.getVisualizer(gwd.getMap());
+		new EpisodeSequenceVisualizer(v, domain, Arrays.asList(ea));
+
+	}
+
+}
@@ -0,0 +1,141 @@
+package edu.brown.cs.burlap.tutorials;
+
+import burlap.behavior.policy.EnumerablePolicy;
+import burlap.behavior.policy.support.ActionProb;
+import burlap.behavior.policy.support.PolicyUndefinedException;
+import burlap.behavior.valuefunction.QProvider;
+import burlap.behavior.valuefunction.QValue;
+import burlap.debugtools.RandomFactory;
+import burlap.mdp.core.action.Action;
+import burlap.mdp.core.state.State;
+import burlap.statehashing.HashableState;
+import burlap.statehashing.HashableStateFactory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * A greedy policy frozen into a table from states to their set of maximizing actions. It behaves like a
+ * {@link burlap.behavior.policy.GreedyQPolicy} over the Q-values it was built from, breaking ties uniformly
+ * at random, but each query is a single hash lookup instead of a Bellman backup per action. The policy is
+ * only defined for the states it was built for.
+ */
+public class GreedyPolicyTable implements EnumerablePolicy {
+
+	protected HashableStateFactory hashingFactory;
+	protected Map<HashableState, Action []> table;
+	protected Random rand = RandomFactory.getMapped(0);
+
+
+	public GreedyPolicyTable(HashableStateFactory hashingFactory) {
+		this.hashingFactory = hashingFactory;
+		this.table = new HashMap<HashableState, Action[]>();
+	}
+
+	/**
+	 * Builds the table for the given hashed states from the Q-values of a {@link QProvider}.
+	 */
+	public static GreedyPolicyTable fromHashedStates(QProvider qSource, Collection<HashableState> states,
+													 HashableStateFactory hashingFactory){
+		GreedyPolicyTable policy = new GreedyPolicyTable(hashingFactory);
+		for(HashableState sh : states){
+			policy.put(sh, qSource.qValues(sh.s()));
+		}
+		return policy;
+	}
+
+	/**
+	 * Builds the table for the given states from the Q-values of a {@link QProvider}.
+	 */
+	public static GreedyPolicyTable fromStates(QProvider qSource, Collection<State> states,
+											   HashableStateFactory hashingFactory){
+		GreedyPolicyTable policy = new GreedyPolicyTable(hashingFactory);
+		for(State s : states){
+			policy.put(hashingFactory.hashState(s), qSource.qValues(s));
+		}
+		return policy;
+	}
+
+	/**
+	 * Stores the maximizing actions of the given Q-values as the tie set of a state. States
+	 * without any Q-values are left undefined.
+	 */
+	public void put(HashableState sh, List<QValue> qs){
+		if(qs.isEmpty()){
+			return;
+		}
+		List<Action> ties = new ArrayList<Action>(qs.size());
+		double max = Double.NEGATIVE_INFINITY;
+		for(QValue q : qs){
+			if(q.q == max){
+				ties.add(q.a);
+			}
+			else if(q.q > max){
+				ties.clear();
+				ties.add(q.a);
+				max = q.q;
+			}
+		}
+		this.table.put(sh, ties.toArray(new Action[ties.size()]));
+	}
+
+	public void put(HashableState sh, Action [] ties){
+		this.table.put(sh, ties);
+	}
+
+	public int size(){
+		return this.table.size();
+	}
+
+	public void setRandom(Random rand) {
+		this.rand = rand;
+	}
+
+	protected Action [] ties(State s){
+		Action [] ties = this.table.get(this.hashingFactory.hashState(s));
+		if(ties == null){
+			throw new PolicyUndefinedException();
+		}
+		return ties;
+	}
+
+	@Override
+	public Action action(State s) {
+		Action [] ties = this.ties(s);
+		if(ties.length == 1){
+			return ties[0];
+		}
+		return ties[this.rand.nextInt(ties.length)];
+	}
+
+	@Override
+	public double actionProb(State s, Action a) {
+		Action [] ties = this.ties(s);
+		for(Action t : ties){
+			if(t.equals(a)){
+				return 1. / ties.length;
+			}
+		}
+		return 0.;
+	}
+
+	@Override
+	public List<ActionProb> policyDistribution(State s) {
+		Action [] ties = this.ties(s);
+		List<ActionProb> dist = new ArrayList<ActionProb>(ties.length);
+		for(Action a : ties){
+			dist.add(new ActionProb(a, 1. / ties.length));
+		}
+		return dist;
+	}
+
+	@Override
+	public boolean definedFor(State s) {
+		return this.table.containsKey(this.hashingFactory.hashState(s));
+	}
+
+}
@@ -0,0 +1,47 @@
+package edu.brown.cs.burlap.tutorials;
+
+import burlap.mdp.core.state.MutableState;
+import burlap.mdp.core.state.State;
+import edu.brown.cs.burlap.tutorials.domain.IntState;
+
+import java.util.List;
+
+/**
+ * Encodes states whose variables are all integers as a fixed number of ints, one per variable key of a
+ * template state. Decoding copies the template and sets each variable, so every encoded state must have
+ * the same variable keys as the template (for example, grid world states with the same objects).
+ */
+public class IntStateCodec {
+
+	protected MutableState template;
+	protected List<Object> keys;
+
+
+	public IntStateCodec(MutableState template) {
+		this.template = template;
+		this.keys = template.variableKeys();
+	}
+
+	public int numInts() {
+		return this.keys.size();
+	}
+
+	public List<Object> getKeys() {
+		return this.keys;
+	}
+
+	public void encode(State s, int [] out, int offset){
+		for(int i = 0; i < this.keys.size(); i++){
+			out[offset + i] = IntState.Helper.getInt(s, this.keys.get(i));
+		}
+	}
+
+	public State decode(int [] in, int offset){
+		MutableState s = (MutableState)this.template.copy();
+		for(int i = 0; i < this.keys.size(); i++){
+			s.set(this.keys.get(i), in[offset + i]);
+		}
+		return s;
+	}
+
+}
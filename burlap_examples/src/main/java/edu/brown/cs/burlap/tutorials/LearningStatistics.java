@@ -0,0 +1,18 @@
+package edu.brown.cs.burlap.tutorials;
+
+/**
+ * Per-episode learning statistics that a tabular learner can report to {@link LearningTelemetry}.
+ */
+public interface LearningStatistics {
+
+	/**
+	 * Returns the mean absolute TD error of the updates made for the steps of the most recent learning episode.
+	 */
+	double lastEpisodeMeanAbsTDError();
+
+	/**
+	 * Returns the number of states currently stored in the learner's Q-table.
+	 */
+	int numStoredStates();
+
+}
@@ -0,0 +1,89 @@
+package edu.brown.cs.burlap.tutorials;
+
+import burlap.behavior.singleagent.Episode;
+import burlap.mdp.singleagent.environment.Environment;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Runs many learning episodes of a {@link StreamingLearner} without keeping every episode in memory.
+ * By default no episode is recorded; recordEvery and recordLast select a sampled subset and/or the
+ * final episodes to keep. Each finished episode is reported to an optional {@link EpisodeSummaryListener}
+ * with its step count and return.
+ */
+public class LearningStream {
+
+	protected int maxSteps = -1;
+	protected int recordEvery = 0;
+	protected int recordLast = 0;
+	protected EpisodeSummaryListener listener;
+
+
+	public LearningStream() {
+	}
+
+	public void setMaxSteps(int maxSteps) {
+		this.maxSteps = maxSteps;
+	}
+
+	/**
+	 * Record every n-th episode (episodes 0, n, 2n, ...); 0 records none.
+	 */
+	public void setRecordEvery(int n) {
+		this.recordEvery = n;
+	}
+
+	/**
+	 * Record the last k episodes of each run; 0 records none.
+	 */
+	public void setRecordLast(int k) {
+		this.recordLast = k;
+	}
+
+	public void setListener(EpisodeSummaryListener listener) {
+		this.listener = listener;
+	}
+
+	/**
+	 * Runs numEpisodes learning episodes, resetting the environment after each one.
+	 * @return the recorded episodes in the order they were run
+	 */
+	public List<Episode> run(StreamingLearner agent, Environment env, int numEpisodes){
+
+		List<Episode> recorded = new ArrayList<Episode>();
+		for(int i = 0; i < numEpisodes; i++){
+
+			Episode e = null;
+			if(this.shouldRecord(i, numEpisodes)){
+				e = new Episode(env.currentObservation());
+				recorded.add(e);
+			}
+
+			int steps = agent.runLearningEpisode(env, this.maxSteps, e);
+			if(this.listener != null){
+				this.listener.episodeEnded(i, steps, agent.lastEpisodeReturn());
+			}
+
+			env.resetEnvironment();
+		}
+
+		return recorded;
+	}
+
+	protected boolean shouldRecord(int episode, int numEpisodes){
+		if(this.recordEvery > 0 && episode % this.recordEvery == 0){
+			return true;
+		}
+		return episode >= numEpisodes - this.recordLast;
+	}
+
+
+	/**
+	 * Receives the summary of every learning episode as it finishes.
+	 */
+	public interface EpisodeSummaryListener {
+		void episodeEnded(int episode, int steps, double totalReward);
+	}
+
+}
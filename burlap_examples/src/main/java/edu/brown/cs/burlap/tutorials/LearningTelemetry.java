@@ -0,0 +1,277 @@
+package edu.brown.cs.burlap.tutorials;
+
+import burlap.behavior.singleagent.Episode;
+import burlap.behavior.singleagent.learning.LearningAgent;
+
+import java.io.BufferedWriter;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Method;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes a learning curve, one record per episode, to a CSV or JSON lines file. Each record holds the
+ * episode's steps and return, the mean absolute TD error and Q-table size if the agent implements
+ * {@link LearningStatistics}, and the steps per second and bytes allocated per second by the learning
+ * thread since the previous record. The learning thread only enqueues a small record; formatting and
+ * file IO happen on a background writer thread.
+ * <p>
+ * Records must all come from the same learning thread. Call {@link #close()} when learning is done
+ * to flush the file. If writing fails, later records are dropped and {@link #close()} rethrows the error.
+ * The allocation rate needs a JVM whose thread bean reports allocated bytes (such as HotSpot); on other
+ * JVMs it is left out.
+ * <p>
+ * The examples do not write telemetry. To record a learning curve, pass the telemetry to
+ * {@link LearningStream#setListener(LearningStream.EpisodeSummaryListener)}, or call
+ * {@link #episodeEnded(int, Episode)} after each episode of a hand written loop:
+ * <pre>
+ * LearningTelemetry telemetry = new LearningTelemetry(agent, "ql_curve.csv", LearningTelemetry.Format.CSV);
+ * for(int i = 0; i &lt; 50; i++){
+ *     Episode e = agent.runLearningEpisode(env);
+ *     telemetry.episodeEnded(i, e);
+ *     env.resetEnvironment();
+ * }
+ * telemetry.close();
+ * </pre>
+ */
+public class LearningTelemetry implements LearningStream.EpisodeSummaryListener {
+
+	public enum Format {
+		CSV, JSONL
+	}
+
+	protected static final String [] COLUMNS = new String[]{"episode", "steps", "return", "meanAbsTDError",
+			"qTableSize", "stepsPerSec", "bytesPerSec"};
+
+	protected LearningAgent agent;
+	protected Format format;
+	protected BufferedWriter out;
+
+	protected BlockingQueue<Record> queue = new ArrayBlockingQueue<Record>(4096);
+	protected Thread writer;
+	protected volatile IOException writeError;
+
+	//allocation counter of the learning thread, if the JVM supports one; looked up reflectively
+	//because com.sun.management is not available on every JVM
+	protected Object allocationBean;
+	protected Method allocatedBytesMethod;
+	protected long lastNanos;
+	protected long lastAllocated;
+
+
+	/**
+	 * @param agent the agent whose episodes are recorded
+	 * @param path the file to write to
+	 * @param format the file format
+	 */
+	public LearningTelemetry(LearningAgent agent, String path, Format format) {
+		this.agent = agent;
+		this.format = format;
+		try{
+			this.out = new BufferedWriter(new FileWriter(path));
+			if(format == Format.CSV){
+				this.out.write(join(COLUMNS, ","));
+				this.out.newLine();
+			}
+		} catch(IOException e){
+			throw new RuntimeException(e);
+		}
+
+		this.findAllocationCounter();
+
+		this.lastNanos = System.nanoTime();
+		this.lastAllocated = this.allocatedBytes();
+
+		this.writer = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				LearningTelemetry.this.writeLoop();
+			}
+		}, "learning-telemetry");
+		this.writer.setDaemon(true);
+		this.writer.start();
+	}
+
+	@Override
+	public void episodeEnded(int episode, int steps, double totalReward) {
+
+		long now = System.nanoTime();
+		long allocated = this.allocatedBytes();
+		double secs = (now - this.lastNanos) / 1e9;
+
+		Record r = new Record();
+		r.episode = episode;
+		r.steps = steps;
+		r.totalReward = totalReward;
+		r.meanAbsTDError = Double.NaN;
+		r.qTableSize = -1;
+		if(this.agent instanceof LearningStatistics){
+			LearningStatistics stats = (LearningStatistics)this.agent;
+			r.meanAbsTDError = stats.lastEpisodeMeanAbsTDError();
+			r.qTableSize = stats.numStoredStates();
+		}
+		r.stepsPerSec = steps / secs;
+		r.bytesPerSec = allocated == -1 ? Double.NaN : (allocated - this.lastAllocated) / secs;
+
+		this.enqueue(r);
+
+		//exclude our own bookkeeping from the next interval
+		this.lastNanos = System.nanoTime();
+		this.lastAllocated = this.allocatedBytes();
+	}
+
+	/**
+	 * Records an episode returned by {@link LearningAgent#runLearningEpisode(burlap.mdp.singleagent.environment.Environment)}.
+	 */
+	public void episodeEnded(int episode, Episode e){
+		double totalReward = 0.;
+		for(double r : e.rewardSequence){
+			totalReward += r;
+		}
+		this.episodeEnded(episode, e.maxTimeStep(), totalReward);
+	}
+
+	/**
+	 * Writes all pending records and closes the file.
+	 */
+	public void close(){
+		this.enqueue(Record.END);
+		try{
+			this.writer.join();
+		} catch(InterruptedException e){
+			Thread.currentThread().interrupt();
+		}
+		if(this.writeError != null){
+			throw new RuntimeException(this.writeError);
+		}
+	}
+
+	/**
+	 * Hands a record to the writer thread, waiting while the queue is full. Once the writer has stopped,
+	 * because of an IO error or because the file was closed, the record is dropped instead.
+	 */
+	protected void enqueue(Record r){
+		if(this.writeError != null){
+			return;
+		}
+		try{
+			while(!this.queue.offer(r, 100, TimeUnit.MILLISECONDS)){
+				if(this.writeError != null || !this.writer.isAlive()){
+					return;
+				}
+			}
+		} catch(InterruptedException e){
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	protected void findAllocationCounter(){
+		Object bean = ManagementFactory.getThreadMXBean();
+		try{
+			Class<?> c = Class.forName("com.sun.management.ThreadMXBean");
+			if(c.isInstance(bean) && (Boolean)c.getMethod("isThreadAllocatedMemorySupported").invoke(bean)){
+				c.getMethod("setThreadAllocatedMemoryEnabled", boolean.class).invoke(bean, true);
+				this.allocatedBytesMethod = c.getMethod("getThreadAllocatedBytes", long.class);
+				this.allocationBean = bean;
+			}
+		} catch(Exception e){
+			//no allocation counter on this JVM
+			this.allocationBean = null;
+			this.allocatedBytesMethod = null;
+		}
+	}
+
+	protected long allocatedBytes(){
+		if(this.allocationBean == null){
+			return -1;
+		}
+		try{
+			return (Long)this.allocatedBytesMethod.invoke(this.allocationBean, Thread.currentThread().getId());
+		} catch(Exception e){
+			return -1;
+		}
+	}
+
+	protected void writeLoop(){
+		try{
+			while(true){
+				Record r = this.queue.take();
+				if(r == Record.END){
+					break;
+				}
+				this.out.write(this.format(r));
+				this.out.newLine();
+				if(this.queue.isEmpty()){
+					this.out.flush();
+				}
+			}
+		} catch(InterruptedException e){
+			//stop writing
+		} catch(IOException e){
+			this.writeError = e;
+			//nothing will take the pending records anymore
+			this.queue.clear();
+		} finally{
+			try{
+				this.out.close();
+			} catch(IOException e){
+				if(this.writeError == null){
+					this.writeError = e;
+				}
+			}
+		}
+	}
+
+	protected String format(Record r){
+		String [] values = new String[]{String.valueOf(r.episode), String.valueOf(r.steps), this.number(r.totalReward),
+				number(r.meanAbsTDError), String.valueOf(r.qTableSize), this.number(r.stepsPerSec), this.number(r.bytesPerSec)};
+		if(this.format == Format.CSV){
+			return join(values, ",");
+		}
+		StringBuilder buf = new StringBuilder("{");
+		for(int i = 0; i < COLUMNS.length; i++){
+			if(i > 0){
+				buf.append(", ");
+			}
+			buf.append('"').append(COLUMNS[i]).append("\": ").append(values[i]);
+		}
+		return buf.append('}').toString();
+	}
+
+	protected String number(double d){
+		//JSON has no NaN or infinity
+		if(this.format == Format.JSONL && (Double.isNaN(d) || Double.isInfinite(d))){
+			return "null";
+		}
+		return String.valueOf(d);
+	}
+
+	protected static String join(String [] values, String sep){
+		StringBuilder buf = new StringBuilder();
+		for(int i = 0; i < values.length; i++){
+			if(i > 0){
+				buf.append(sep);
+			}
+			buf.append(values[i]);
+		}
+		return buf.toString();
+	}
+
+
+	protected static class Record {
+
+		static final Record END = new Record();
+
+		int episode;
+		int steps;
+		double totalReward;
+		double meanAbsTDError;
+		int qTableSize;
+		double stepsPerSec;
+		double bytesPerSec;
+	}
+
+}
@@ -0,0 +1,67 @@
+package edu.brown.cs.burlap.tutorials;
+
+import burlap.mdp.core.state.State;
+import burlap.statehashing.HashableState;
+import burlap.statehashing.HashableStateFactory;
+import edu.brown.cs.burlap.tutorials.domain.PackedStateCodec;
+
+/**
+ * Hashes states by their {@link PackedStateCodec} code. The code is both the equality key and, when it
+ * fits in an int, a perfect hash code, so hashed states are compared with a single long comparison
+ * instead of by iterating over their variables.
+ */
+public class PackedHashableStateFactory implements HashableStateFactory {
+
+	protected PackedStateCodec codec;
+
+
+	public PackedHashableStateFactory(PackedStateCodec codec) {
+		this.codec = codec;
+	}
+
+	public PackedStateCodec getCodec() {
+		return this.codec;
+	}
+
+	@Override
+	public HashableState hashState(State s) {
+		return new PackedHashableState(s, this.codec.encode(s));
+	}
+
+
+	/**
+	 * A state paired with its packed code.
+	 */
+	public static class PackedHashableState implements HashableState {
+
+		public final State s;
+		public final long code;
+
+		public PackedHashableState(State s, long code) {
+			this.s = s;
+			this.code = code;
+		}
+
+		@Override
+		public State s() {
+			return this.s;
+		}
+
+		@Override
+		public int hashCode() {
+			return (int)(this.code ^ (this.code >>> 32));
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if(this == o){
+				return true;
+			}
+			if(!(o instanceof PackedHashableState)){
+				return false;
+			}
+			return this.code == ((PackedHashableState)o).code;
+		}
+	}
+
+}
@@ -0,0 +1,400 @@
+package edu.brown.cs.burlap.tutorials;
+
+import burlap.behavior.policy.GreedyQPolicy;
+import burlap.behavior.policy.Policy;
+import burlap.behavior.valuefunction.ConstantValueFunction;
+import burlap.behavior.valuefunction.QFunction;
+import burlap.behavior.valuefunction.QProvider;
+import burlap.behavior.valuefunction.QValue;
+import burlap.mdp.core.action.Action;
+import burlap.mdp.core.action.ActionType;
+import burlap.mdp.core.action.ActionUtils;
+import burlap.mdp.core.state.State;
+import burlap.mdp.singleagent.SADomain;
+import burlap.mdp.singleagent.environment.Environment;
+import burlap.mdp.singleagent.environment.EnvironmentOutcome;
+import burlap.mdp.singleagent.environment.SimulatedEnvironment;
+import burlap.statehashing.HashableState;
+import burlap.statehashing.HashableStateFactory;
+import burlap.statehashing.simple.SimpleHashableStateFactory;
+import edu.brown.cs.burlap.tutorials.domain.RandomStreams;
+import edu.brown.cs.burlap.tutorials.domain.simple.TrafficLightGridState;
+import edu.brown.cs.burlap.tutorials.domain.simple.TrafficLightGridWorld;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Hogwild style Q-learning: several worker threads, each with its own {@link SimulatedEnvironment} and
+ * random number stream, run epsilon-greedy Q-learning episodes against one shared Q-table without
+ * taking any locks. Rows are created with a concurrent put-if-absent and each Q-value update is a
+ * compare-and-swap on the value's bits, so no update is lost, but a worker may compute its target from
+ * a value another worker is about to change.
+ * <p>
+ * Learning runs in rounds. In each round every worker runs a fixed number of episodes; between rounds
+ * all workers are idle, and a consistent {@link QTableSnapshot} of the shared table is published to
+ * the registered {@link SnapshotListener}s.
+ * <p>
+ * Worker i draws its exploration from stream i of the given {@link RandomStreams} and binds that stream
+ * to its thread while it runs, so a domain generated with the same streams samples its transitions from
+ * it too. Each worker's experience is then reproducible from the master seed; with more than one worker
+ * the interleaving of updates to the shared table still varies from run to run.
+ */
+public class ParallelQLearning implements QProvider {
+
+	protected SADomain domain;
+	protected List<ActionType> actionTypes;
+	protected HashableStateFactory hashingFactory;
+	protected double gamma;
+	protected QFunction qinit;
+	protected double learningRate;
+	protected double epsilon;
+	protected int maxEpisodeSize = -1;
+
+	protected ConcurrentHashMap<HashableState, Row> qTable;
+	protected List<Worker> workers;
+	protected List<SnapshotListener> listeners = new ArrayList<SnapshotListener>();
+	protected QTableSnapshot lastSnapshot;
+	protected RandomStreams randomStreams;
+
+
+	/**
+	 * @param initialState the initial state of every worker's environment
+	 * @param numWorkers the number of worker threads, each with its own environment
+	 * @param randomStreams the streams each worker draws from, one stream per worker
+	 */
+	public ParallelQLearning(SADomain domain, double gamma, HashableStateFactory hashingFactory,
+							 QFunction qinit, double learningRate, double epsilon,
+							 State initialState, int numWorkers, RandomStreams randomStreams){
+
+		this.domain = domain;
+		this.actionTypes = domain.getActionTypes();
+		this.gamma = gamma;
+		this.hashingFactory = hashingFactory;
+		this.qinit = qinit;
+		this.learningRate = learningRate;
+		this.epsilon = epsilon;
+		this.qTable = new ConcurrentHashMap<HashableState, Row>();
+		this.randomStreams = randomStreams;
+
+		this.workers = new ArrayList<Worker>(numWorkers);
+		for(int i = 0; i < numWorkers; i++){
+			this.workers.add(new Worker(new SimulatedEnvironment(domain, initialState), randomStreams.stream(i)));
+		}
+	}
+
+	public void setMaxEpisodeSize(int maxEpisodeSize) {
+		this.maxEpisodeSize = maxEpisodeSize;
+	}
+
+	public void addSnapshotListener(SnapshotListener listener){
+		this.listeners.add(listener);
+	}
+
+	/**
+	 * Returns the snapshot published after the most recent round, or null if no round has finished.
+	 */
+	public QTableSnapshot getLastSnapshot() {
+		return this.lastSnapshot;
+	}
+
+	public int numWorkers(){
+		return this.workers.size();
+	}
+
+	/**
+	 * Total number of environment steps taken by all workers.
+	 */
+	public long totalSteps(){
+		long total = 0;
+		for(Worker w : this.workers){
+			total += w.steps;
+		}
+		return total;
+	}
+
+	/**
+	 * Runs numRounds rounds of learning in which every worker runs episodesPerRound episodes,
+	 * publishing a snapshot after each round.
+	 */
+	public void runLearning(int numRounds, int episodesPerRound){
+
+		ExecutorService pool = Executors.newFixedThreadPool(this.workers.size());
+		try{
+			for(int round = 0; round < numRounds; round++){
+				for(Worker w : this.workers){
+					w.episodesToRun = episodesPerRound;
+				}
+				List<Future<Void>> results = pool.invokeAll(this.workers);
+				for(Future<Void> f : results){
+					f.get(); //rethrow any worker failure
+				}
+
+				//all workers are idle, so the copy is consistent
+				this.lastSnapshot = this.snapshot();
+				for(SnapshotListener l : this.listeners){
+					l.snapshotPublished(round, this.lastSnapshot);
+				}
+			}
+		} catch(InterruptedException e){
+			Thread.currentThread().interrupt();
+			throw new RuntimeException(e);
+		} catch(ExecutionException e){
+			throw new RuntimeException(e.getCause());
+		} finally{
+			pool.shutdown();
+		}
+
+	}
+
+	/**
+	 * Copies the shared table into a {@link QTable}. Only consistent if no worker is running.
+	 */
+	public QTableSnapshot snapshot(){
+		QTable copy = new QTable(this.qTable.size(), Math.max(1, this.actionTypes.size()));
+		for(Map.Entry<HashableState, Row> e : this.qTable.entrySet()){
+			Row row = e.getValue();
+			double [] qs = new double[row.actions.length];
+			for(int i = 0; i < qs.length; i++){
+				qs[i] = row.q(i);
+			}
+			copy.addState(e.getKey(), Arrays.asList(row.actions), qs);
+		}
+		return new QTableSnapshot(copy, this.hashingFactory, this.actionTypes, this.qinit);
+	}
+
+	protected Row row(State s){
+		HashableState sh = this.hashingFactory.hashState(s);
+		Row row = this.qTable.get(sh);
+		if(row != null){
+			return row;
+		}
+		List<Action> actions = ActionUtils.allApplicableActionsForTypes(this.actionTypes, s);
+		Row nrow = new Row(actions.toArray(new Action[actions.size()]));
+		for(int i = 0; i < nrow.actions.length; i++){
+			nrow.setQ(i, this.qinit.qValue(s, nrow.actions[i]));
+		}
+		row = this.qTable.putIfAbsent(sh, nrow);
+		return row != null ? row : nrow;
+	}
+
+	@Override
+	public List<QValue> qValues(State s) {
+		Row row = this.row(s);
+		List<QValue> qs = new ArrayList<QValue>(row.actions.length);
+		for(int i = 0; i < row.actions.length; i++){
+			qs.add(new QValue(s, row.actions[i], row.q(i)));
+		}
+		return qs;
+	}
+
+	@Override
+	public double qValue(State s, Action a) {
+		Row row = this.row(s);
+		return row.q(row.indexOf(a));
+	}
+
+	@Override
+	public double value(State s) {
+		return this.row(s).maxQ();
+	}
+
+
+	/**
+	 * The Q-values of one state. Values are stored as raw long bits so they can be updated with compare-and-swap.
+	 */
+	protected static class Row {
+
+		final Action [] actions;
+		final AtomicLongArray qs;
+
+		public Row(Action [] actions) {
+			this.actions = actions;
+			this.qs = new AtomicLongArray(actions.length);
+		}
+
+		public int indexOf(Action a){
+			for(int i = 0; i < this.actions.length; i++){
+				if(this.actions[i].equals(a)){
+					return i;
+				}
+			}
+			throw new RuntimeException("Could not find matching Q-value.");
+		}
+
+		public double q(int i){
+			return Double.longBitsToDouble(this.qs.get(i));
+		}
+
+		public void setQ(int i, double q){
+			this.qs.set(i, Double.doubleToRawLongBits(q));
+		}
+
+		/**
+		 * Moves Q-value i toward the target by the learning rate, retrying if another thread wrote it concurrently.
+		 */
+		public void update(int i, double learningRate, double target){
+			while(true){
+				long bits = this.qs.get(i);
+				double q = Double.longBitsToDouble(bits);
+				double nq = q + learningRate * (target - q);
+				if(this.qs.compareAndSet(i, bits, Double.doubleToRawLongBits(nq))){
+					return;
+				}
+			}
+		}
+
+		public double maxQ(){
+			if(this.actions.length == 0){
+				return 0.;
+			}
+			double max = this.q(0);
+			for(int i = 1; i < this.actions.length; i++){
+				max = Math.max(max, this.q(i));
+			}
+			return max;
+		}
+
+		/**
+		 * Index of a maximizing action, with ties broken uniformly at random, or -1 if the row has no actions.
+		 */
+		public int argMax(Random rand){
+			if(this.actions.length == 0){
+				return -1;
+			}
+			int best = 0;
+			int numTies = 1;
+			double max = this.q(0);
+			for(int i = 1; i < this.actions.length; i++){
+				double q = this.q(i);
+				if(q > max){
+					max = q;
+					best = i;
+					numTies = 1;
+				}
+				else if(q == max && rand.nextInt(++numTies) == 0){
+					best = i;
+				}
+			}
+			return best;
+		}
+
+	}
+
+
+	/**
+	 * One learning thread with its own environment and random number generator.
+	 */
+	protected class Worker implements Callable<Void> {
+
+		Environment env;
+		Random rand;
+		int episodesToRun;
+		long steps;
+
+		public Worker(Environment env, Random rand) {
+			this.env = env;
+			this.rand = rand;
+		}
+
+		@Override
+		public Void call() {
+			//the domain's model samples from the stream bound to this thread
+			ParallelQLearning.this.randomStreams.bind(this.rand);
+			try{
+				for(int i = 0; i < this.episodesToRun; i++){
+					this.runEpisode();
+					this.env.resetEnvironment();
+				}
+			} finally{
+				ParallelQLearning.this.randomStreams.unbind();
+			}
+			return null;
+		}
+
+		protected void runEpisode(){
+			State curState = this.env.currentObservation();
+			Row curRow = ParallelQLearning.this.row(curState);
+			int n = 0;
+			while(!this.env.isInTerminalState() && (n < ParallelQLearning.this.maxEpisodeSize || ParallelQLearning.this.maxEpisodeSize == -1)){
+
+				//a state without applicable actions cannot be left, so there is nothing to update
+				if(curRow.actions.length == 0){
+					break;
+				}
+
+				//epsilon-greedy action selection from the shared table
+				int ai;
+				if(this.rand.nextDouble() < ParallelQLearning.this.epsilon){
+					ai = this.rand.nextInt(curRow.actions.length);
+				}
+				else{
+					ai = curRow.argMax(this.rand);
+				}
+
+				EnvironmentOutcome eo = this.env.executeAction(curRow.actions[ai]);
+
+				Row nextRow = eo.terminated ? null : ParallelQLearning.this.row(eo.op);
+				double maxQ = eo.terminated ? 0. : nextRow.maxQ();
+				curRow.update(ai, ParallelQLearning.this.learningRate, eo.r + ParallelQLearning.this.gamma * maxQ);
+
+				curRow = nextRow;
+				n++;
+			}
+			this.steps += n;
+		}
+
+	}
+
+
+	/**
+	 * Receives the snapshot published at the end of every learning round.
+	 */
+	public interface SnapshotListener {
+		void snapshotPublished(int round, QTableSnapshot snapshot);
+	}
+
+
+	public static void main(String[] args) {
+
+		RandomStreams streams = new RandomStreams(0);
+		TrafficLightGridWorld gen = new TrafficLightGridWorld();
+		gen.setRandomStreams(streams);
+		gen.setTransitionProbabilities(0.3, 0.9, 0.8);
+		gen.setRewards(20.0, -20.0, -1.0, -2.0, -3.0);
+		SADomain domain = gen.generateDomain();
+		final State initialState = new TrafficLightGridState(0, TrafficLightGridWorld.GREEN);
+
+		int numWorkers = Runtime.getRuntime().availableProcessors();
+		ParallelQLearning agent = new ParallelQLearning(domain, 0.99, new SimpleHashableStateFactory(),
+				new ConstantValueFunction(), 0.1, 0.1, initialState, numWorkers, streams);
+
+		final long start = System.currentTimeMillis();
+		agent.addSnapshotListener(new SnapshotListener() {
+			@Override
+			public void snapshotPublished(int round, QTableSnapshot snapshot) {
+				System.out.println(round + ": V(s0) = " + snapshot.value(initialState)
+						+ " after " + (System.currentTimeMillis() - start) + "ms");
+			}
+		});
+
+		//10 rounds of 1000 episodes per worker
+		agent.runLearning(10, 1000);
+		System.out.println(numWorkers + " workers took " + agent.totalSteps() + " steps");
+
+		Policy p = new GreedyQPolicy(agent.getLastSnapshot());
+		System.out.println("Greedy action in initial state: " + p.action(initialState));
+
+	}
+
+}
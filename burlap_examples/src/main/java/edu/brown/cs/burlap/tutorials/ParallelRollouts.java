@@ -0,0 +1,151 @@
+package edu.brown.cs.burlap.tutorials;
+
+import burlap.behavior.policy.Policy;
+import burlap.behavior.policy.PolicyUtils;
+import burlap.behavior.singleagent.Episode;
+import burlap.mdp.core.action.Action;
+import burlap.mdp.core.state.State;
+import burlap.mdp.singleagent.SADomain;
+import burlap.mdp.singleagent.model.SampleModel;
+import edu.brown.cs.burlap.tutorials.domain.RandomStreams;
+import edu.brown.cs.burlap.tutorials.domain.simple.TrafficLightGridState;
+import edu.brown.cs.burlap.tutorials.domain.simple.TrafficLightGridWorld;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Evaluates a policy with many rollouts spread over a thread pool. Rollout j samples from stream j of
+ * a family split off the domain's {@link RandomStreams}, whichever thread happens to run it, and returns
+ * are combined in rollout order, so for a deterministic policy the result is the same for every number of
+ * threads. Because the family is split off, rollouts never replay the streams that learners or environments
+ * take from the domain's streams by index.
+ */
+public class ParallelRollouts {
+
+	protected SampleModel model;
+	protected RandomStreams randomStreams;
+	protected RandomStreams rolloutStreams;
+	protected int numThreads;
+	protected int maxSteps = -1;
+	protected double gamma = 1.;
+
+
+	/**
+	 * @param domain a domain generated with the given streams
+	 * @param randomStreams the streams the domain's model samples from
+	 * @param numThreads the number of threads rollouts are run on
+	 */
+	public ParallelRollouts(SADomain domain, RandomStreams randomStreams, int numThreads) {
+		this.model = domain.getModel();
+		this.randomStreams = randomStreams;
+		this.rolloutStreams = randomStreams.split(0);
+		this.numThreads = numThreads;
+	}
+
+	public void setMaxSteps(int maxSteps) {
+		this.maxSteps = maxSteps;
+	}
+
+	/**
+	 * Sets the discount applied when summing the rewards of a rollout; 1 by default.
+	 */
+	public void setGamma(double gamma) {
+		this.gamma = gamma;
+	}
+
+	/**
+	 * Runs numRollouts rollouts of p from s and returns the discounted return of each, in rollout order.
+	 */
+	public double [] returns(final Policy p, final State s, int numRollouts){
+
+		final double [] returns = new double[numRollouts];
+		ExecutorService pool = Executors.newFixedThreadPool(this.numThreads);
+		try{
+			List<Future<Void>> futures = new ArrayList<Future<Void>>(numRollouts);
+			for(int j = 0; j < numRollouts; j++){
+				final int rollout = j;
+				futures.add(pool.submit(new Callable<Void>() {
+					@Override
+					public Void call() {
+						randomStreams.bind(rolloutStreams.stream(rollout));
+						try{
+							Episode e = maxSteps == -1 ? PolicyUtils.rollout(p, s, model) : PolicyUtils.rollout(p, s, model, maxSteps);
+							returns[rollout] = e.discountedReturn(gamma);
+						} finally{
+							randomStreams.unbind();
+						}
+						return null;
+					}
+				}));
+			}
+			for(Future<Void> f : futures){
+				f.get();
+			}
+		} catch(InterruptedException e){
+			throw new RuntimeException(e);
+		} catch(ExecutionException e){
+			throw new RuntimeException(e.getCause());
+		} finally{
+			pool.shutdown();
+		}
+
+		return returns;
+	}
+
+	/**
+	 * Returns the mean discounted return of numRollouts rollouts of p from s.
+	 */
+	public double meanReturn(Policy p, State s, int numRollouts){
+		double [] returns = this.returns(p, s, numRollouts);
+		double sum = 0.;
+		for(double r : returns){
+			sum += r;
+		}
+		return sum / numRollouts;
+	}
+
+
+	public static void main(String[] args) {
+
+		RandomStreams streams = new RandomStreams(0);
+		TrafficLightGridWorld gen = new TrafficLightGridWorld();
+		gen.setRandomStreams(streams);
+		gen.setTransitionProbabilities(0.3, 0.9, 0.8);
+		gen.setRewards(20.0, -20.0, -1.0, -2.0, -3.0);
+		SADomain domain = gen.generateDomain();
+		State s = new TrafficLightGridState(0, TrafficLightGridWorld.GREEN);
+
+		//a fixed policy that always moves forward
+		final Action forward = domain.getAction(TrafficLightGridWorld.ACTION_FORWARD).associatedAction("");
+		Policy p = new Policy() {
+			@Override
+			public Action action(State s) {
+				return forward;
+			}
+
+			@Override
+			public double actionProb(State s, Action a) {
+				return a.equals(forward) ? 1. : 0.;
+			}
+
+			@Override
+			public boolean definedFor(State s) {
+				return true;
+			}
+		};
+
+		//the same seed gives the same mean on any number of threads
+		for(int threads : new int[]{1, 4}){
+			ParallelRollouts rollouts = new ParallelRollouts(domain, streams, threads);
+			System.out.println(threads + " threads: mean return " + rollouts.meanReturn(p, s, 10000));
+		}
+
+	}
+
+}
@@ -0,0 +1,153 @@
+package edu.brown.cs.burlap.tutorials;
+
+import burlap.behavior.policy.EnumerablePolicy;
+import burlap.behavior.policy.support.ActionProb;
+import burlap.behavior.policy.support.PolicyUndefinedException;
+import burlap.behavior.valuefunction.ConstantValueFunction;
+import burlap.domain.singleagent.gridworld.GridWorldDomain;
+import burlap.domain.singleagent.gridworld.GridWorldTerminalFunction;
+import burlap.domain.singleagent.gridworld.state.GridAgent;
+import burlap.domain.singleagent.gridworld.state.GridWorldState;
+import burlap.mdp.core.action.Action;
+import burlap.mdp.core.state.State;
+import burlap.mdp.singleagent.SADomain;
+import burlap.mdp.singleagent.environment.SimulatedEnvironment;
+import burlap.statehashing.simple.SimpleHashableStateFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Serves greedy actions from the most recently published {@link QTableSnapshot} while a learner keeps
+ * updating its own table. Publishing replaces a single volatile reference to an immutable snapshot, so
+ * any number of serving threads can call {@link #action(State)} concurrently without locks and without
+ * ever seeing a partially updated table; a query sees either the old or the new snapshot in full.
+ * <p>
+ * The policy is deterministic: it returns the stored maximizing action of the snapshot.
+ */
+public class PolicyServer implements EnumerablePolicy, ParallelQLearning.SnapshotListener {
+
+	protected volatile QTableSnapshot snapshot;
+	protected volatile int numPublished;
+
+
+	public PolicyServer() {
+	}
+
+	/**
+	 * Makes a snapshot the one served to all subsequent queries. The snapshot must not be modified afterwards,
+	 * and snapshots should be published from a single thread.
+	 */
+	public void publish(QTableSnapshot snapshot){
+		this.snapshot = snapshot;
+		this.numPublished++;
+	}
+
+	@Override
+	public void snapshotPublished(int round, QTableSnapshot snapshot) {
+		this.publish(snapshot);
+	}
+
+	/**
+	 * Returns the snapshot currently being served, or null if none has been published.
+	 */
+	public QTableSnapshot getSnapshot() {
+		return this.snapshot;
+	}
+
+	public int getNumPublished() {
+		return this.numPublished;
+	}
+
+	protected QTableSnapshot current(){
+		QTableSnapshot snapshot = this.snapshot;
+		if(snapshot == null){
+			throw new PolicyUndefinedException();
+		}
+		return snapshot;
+	}
+
+	@Override
+	public Action action(State s) {
+		Action a = this.current().greedyAction(s);
+		if(a == null){
+			throw new PolicyUndefinedException();
+		}
+		return a;
+	}
+
+	@Override
+	public double actionProb(State s, Action a) {
+		return this.action(s).equals(a) ? 1. : 0.;
+	}
+
+	@Override
+	public List<ActionProb> policyDistribution(State s) {
+		List<ActionProb> dist = new ArrayList<ActionProb>(1);
+		dist.add(new ActionProb(this.action(s), 1.));
+		return dist;
+	}
+
+	@Override
+	public boolean definedFor(State s) {
+		QTableSnapshot snapshot = this.snapshot;
+		return snapshot != null && snapshot.greedyAction(s) != null;
+	}
+
+
+	public static void main(String[] args) throws InterruptedException {
+
+		GridWorldDomain gwd = new GridWorldDomain(11, 11);
+		gwd.setMapToFourRooms();
+		gwd.setProbSucceedTransitionDynamics(0.8);
+		gwd.setTf(new GridWorldTerminalFunction(10, 10));
+		SADomain domain = gwd.generateDomain();
+
+		final State s = new GridWorldState(new GridAgent(0, 0));
+		SimulatedEnvironment env = new SimulatedEnvironment(domain, s);
+
+		QLTutorial agent = new QLTutorial(domain, 0.99, new SimpleHashableStateFactory(),
+				new ConstantValueFunction(), 0.1, 0.1);
+
+		//publish a new snapshot every 20 learning episodes
+		final PolicyServer server = new PolicyServer();
+		agent.setPolicyServer(server, 20);
+
+		//serve queries from two threads while learning runs on this one
+		final AtomicLong queries = new AtomicLong();
+		final AtomicBoolean done = new AtomicBoolean();
+		List<Thread> servers = new ArrayList<Thread>();
+		for(int i = 0; i < 2; i++){
+			Thread t = new Thread(new Runnable() {
+				@Override
+				public void run() {
+					long n = 0;
+					while(!done.get()){
+						server.action(s);
+						n++;
+					}
+					queries.addAndGet(n);
+				}
+			});
+			t.start();
+			servers.add(t);
+		}
+
+		for(int i = 0; i < 1000; i++){
+			agent.runLearningEpisode(env, -1, null);
+			env.resetEnvironment();
+		}
+
+		done.set(true);
+		for(Thread t : servers){
+			t.join();
+		}
+
+		System.out.println("Published " + server.getNumPublished() + " snapshots and served " + queries.get() + " queries");
+		System.out.println("Served action in the initial state: " + server.action(s));
+
+	}
+
+}
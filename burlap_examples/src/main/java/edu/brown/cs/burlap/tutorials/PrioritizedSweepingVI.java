@@ -0,0 +1,248 @@
+package edu.brown.cs.burlap.tutorials;
+
+import burlap.behavior.policy.GreedyQPolicy;
+import burlap.behavior.policy.Policy;
+import burlap.behavior.policy.PolicyUtils;
+import burlap.behavior.singleagent.Episode;
+import burlap.behavior.singleagent.auxiliary.EpisodeSequenceVisualizer;
+import burlap.behavior.valuefunction.ConstantValueFunction;
+import burlap.behavior.valuefunction.ValueFunction;
+import burlap.mdp.core.state.State;
+import burlap.mdp.singleagent.SADomain;
+import burlap.statehashing.HashableStateFactory;
+import burlap.statehashing.simple.SimpleHashableStateFactory;
+import burlap.visualizer.Visualizer;
+import edu.brown.cs.burlap.tutorials.domain.simple.EXGridState;
+import edu.brown.cs.burlap.tutorials.domain.simple.ExampleGridWorld;
+
+import java.util.Arrays;
+
+/**
+ * Asynchronous value iteration that, instead of sweeping over every state, always backs up the state
+ * with the largest Bellman error. After a state's value changes, the Bellman errors of its predecessors
+ * are recomputed and they are (re)queued if their error exceeds the threshold. Planning stops when no
+ * queued state has an error above the threshold or the backup budget is spent.
+ */
+public class PrioritizedSweepingVI extends DenseValueIteration {
+
+	protected double theta;
+	protected int maxBackups;
+	protected int numBackups;
+	protected int numEvaluations;
+
+
+	/**
+	 * @param theta the smallest Bellman error for which a state is queued for a backup
+	 * @param maxBackups the maximum number of backups per planning call; -1 for no limit
+	 */
+	public PrioritizedSweepingVI(SADomain domain, double gamma,
+								 HashableStateFactory hashingFactory, ValueFunction vinit, double theta, int maxBackups){
+		super(domain, gamma, hashingFactory, vinit, 0);
+		this.theta = theta;
+		this.maxBackups = maxBackups;
+	}
+
+	/**
+	 * Returns the number of value backups performed by the last planning call. This is the number of
+	 * values written, which the backup budget limits.
+	 */
+	public int getNumBackups() {
+		return this.numBackups;
+	}
+
+	/**
+	 * Returns the number of Bellman evaluations (max over action Q-values) computed by the last planning
+	 * call: the backups plus the evaluations that seed the queue and re-score predecessors.
+	 */
+	public int getNumEvaluations() {
+		return this.numEvaluations;
+	}
+
+	@Override
+	public GreedyQPolicy planFromState(State initialState) {
+
+		if(this.mdp != null && this.mdp.stateId(initialState) != -1){
+			return new GreedyQPolicy(this); //already performed planning here!
+		}
+
+		this.compileFrom(initialState);
+		this.mdp.ensurePredecessors();
+
+		int n = this.mdp.numStates();
+		IndexedMaxHeap queue = new IndexedMaxHeap(n);
+
+		this.numBackups = 0;
+		this.numEvaluations = n;
+
+		//seed the queue with every state's initial Bellman error
+		for(int s = 0; s < n; s++){
+			double err = Math.abs(this.mdp.maxQ(s, this.values, this.gamma) - this.values[s]);
+			if(err > this.theta){
+				queue.offer(s, err);
+			}
+		}
+
+		while(!queue.isEmpty() && (this.maxBackups == -1 || this.numBackups < this.maxBackups)){
+
+			int s = queue.poll();
+			this.values[s] = this.mdp.maxQ(s, this.values, this.gamma);
+			this.numBackups++;
+			this.numEvaluations++;
+
+			//the change may have raised the error of anything that can transition to s
+			for(int i = this.mdp.predStart(s); i < this.mdp.predEnd(s); i++){
+				int p = this.mdp.predecessor(i);
+				this.numEvaluations++;
+				double err = Math.abs(this.mdp.maxQ(p, this.values, this.gamma) - this.values[p]);
+				if(err > this.theta){
+					queue.offer(p, err);
+				}
+				else{
+					queue.remove(p);
+				}
+			}
+
+		}
+
+		return new GreedyQPolicy(this);
+	}
+
+
+	/**
+	 * Binary max heap over the ints 0..n-1 that tracks each element's heap position, so priorities
+	 * can be changed or elements removed in O(log n).
+	 */
+	protected static class IndexedMaxHeap {
+
+		int [] heap;
+		int [] pos; //-1 when not in the heap
+		double [] priority;
+		int size;
+
+		public IndexedMaxHeap(int n) {
+			this.heap = new int[n];
+			this.pos = new int[n];
+			this.priority = new double[n];
+			Arrays.fill(this.pos, -1);
+		}
+
+		public boolean isEmpty(){
+			return this.size == 0;
+		}
+
+		/**
+		 * Inserts e with priority p, or sets the priority of e to p if it is already queued.
+		 */
+		public void offer(int e, double p){
+			int i = this.pos[e];
+			if(i == -1){
+				i = this.size++;
+				this.heap[i] = e;
+				this.pos[e] = i;
+				this.priority[e] = p;
+				this.siftUp(i);
+			}
+			else{
+				double old = this.priority[e];
+				this.priority[e] = p;
+				if(p > old){
+					this.siftUp(i);
+				}
+				else{
+					this.siftDown(i);
+				}
+			}
+		}
+
+		public int poll(){
+			int top = this.heap[0];
+			this.removeAt(0);
+			return top;
+		}
+
+		public void remove(int e){
+			int i = this.pos[e];
+			if(i != -1){
+				this.removeAt(i);
+			}
+		}
+
+		protected void removeAt(int i){
+			int e = this.heap[i];
+			this.pos[e] = -1;
+			this.size--;
+			if(i == this.size){
+				return;
+			}
+			int last = this.heap[this.size];
+			this.heap[i] = last;
+			this.pos[last] = i;
+			this.siftUp(i);
+			this.siftDown(this.pos[last]);
+		}
+
+		protected void siftUp(int i){
+			int e = this.heap[i];
+			double p = this.priority[e];
+			while(i > 0){
+				int parent = (i - 1) >>> 1;
+				int pe = this.heap[parent];
+				if(this.priority[pe] >= p){
+					break;
+				}
+				this.heap[i] = pe;
+				this.pos[pe] = i;
+				i = parent;
+			}
+			this.heap[i] = e;
+			this.pos[e] = i;
+		}
+
+		protected void siftDown(int i){
+			int e = this.heap[i];
+			double p = this.priority[e];
+			int half = this.size >>> 1;
+			while(i < half){
+				int child = 2*i + 1;
+				int right = child + 1;
+				if(right < this.size && this.priority[this.heap[right]] > this.priority[this.heap[child]]){
+					child = right;
+				}
+				int ce = this.heap[child];
+				if(p >= this.priority[ce]){
+					break;
+				}
+				this.heap[i] = ce;
+				this.pos[ce] = i;
+				i = child;
+			}
+			this.heap[i] = e;
+			this.pos[e] = i;
+		}
+
+	}
+
+
+	public static void main(String [] args){
+
+		ExampleGridWorld gen = new ExampleGridWorld();
+		gen.setGoalLocation(10, 10);
+		SADomain domain = gen.generateDomain();
+		State s = new EXGridState(0, 0);
+
+		//only back up states whose Bellman error is above 0.001
+		PrioritizedSweepingVI vi = new PrioritizedSweepingVI(domain, 0.99, new SimpleHashableStateFactory(),
+				new ConstantValueFunction(0.0), 0.001, -1);
+
+		Policy p = vi.planFromState(s);
+		System.out.println("Backups: " + vi.getNumBackups() + ", Bellman evaluations: " + vi.getNumEvaluations()
+				+ " over " + vi.getDenseMDP().numStates() + " states");
+
+		Episode ea = PolicyUtils.rollout(p, s, domain.getModel());
+
+		Visualizer v = gen.getVisualizer();
+		new EpisodeSequenceVisualizer(v, domain, Arrays.asList(ea));
+
+	}
+
+}
@@ -5,7 +5,6 @@ import burlap.behavior.policy.Policy;
 import burlap.behavior.singleagent.Episode;
 import burlap.behavior.singleagent.MDPSolver;
 import burlap.behavior.singleagent.auxiliary.EpisodeSequenceVisualizer;
-import burlap.behavior.singleagent.learning.LearningAgent;
 import burlap.behavior.valuefunction.ConstantValueFunction;
 import burlap.behavior.valuefunction.QFunction;
 import burlap.behavior.valuefunction.QProvider;
@@ -27,19 +26,31 @@ import burlap.statehashing.simple.SimpleHashableStateFactory;
 import burlap.visualizer.Visualizer;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
+import java.util.Random;
 
 /**
  * @author James MacGlashan.
  */
-public class QLTutorial extends MDPSolver implements LearningAgent, QProvider {
+public class QLTutorial extends MDPSolver implements StreamingLearner, LearningStatistics, QProvider {
 
-	Map<HashableState, List<QValue>> qValues;
+	QTable qTable;
 	QFunction qinit;
 	double learningRate;
 	Policy learningPolicy;
+	double lastEpisodeReturn;
+	double lastEpisodeTDErrorSum;
+	int lastEpisodeSteps;
+
+	//experience replay; disabled when null
+	ReplayBuffer replay;
+	int replayBatchSize;
+	Random replayRand = new Random(0);
+
+	//snapshot publishing for concurrent policy serving; disabled when null
+	PolicyServer policyServer;
+	int publishEvery;
+	int numEpisodes;
 
 	public QLTutorial(SADomain domain, double gamma, HashableStateFactory hashingFactory,
 					  QFunction qinit, double learningRate, double epsilon){
@@ -47,7 +58,7 @@ public class QLTutorial extends MDPSolver implements LearningAgent, QProvider {
 		this.solverInit(domain, gamma, hashingFactory);
 		this.qinit = qinit;
 		this.learningRate = learningRate;
-		this.qValues = new HashMap<HashableState, List<QValue>>();
+		this.qTable = new QTable();
 		this.learningPolicy = new EpsilonGreedy(this, epsilon);
 
 	}
@@ -57,14 +68,65 @@ public class QLTutorial extends MDPSolver implements LearningAgent, QProvider {
 		return this.runLearningEpisode(env, -1);
 	}
 
+	/**
+	 * Enables experience replay: every observed transition is stored in a ring buffer of the given
+	 * capacity, and after each environment step batchSize stored transitions are sampled and replayed.
+	 */
+	public void setExperienceReplay(int capacity, int batchSize){
+		this.replay = new ReplayBuffer(capacity);
+		this.replayBatchSize = batchSize;
+	}
+
+	public void disableExperienceReplay(){
+		this.replay = null;
+	}
+
+	/**
+	 * Makes exploration and replay sampling draw from the given generator, for example a stream of a
+	 * {@link edu.brown.cs.burlap.tutorials.domain.RandomStreams}.
+	 */
+	public void setRandom(Random rand){
+		this.learningPolicy = new SeededEpsilonGreedy(this, ((EpsilonGreedy)this.learningPolicy).getEpsilon(), rand);
+		this.replayRand = rand;
+	}
+
+	/**
+	 * Publishes a snapshot of the Q-table to the server now and after every publishEvery learning episodes.
+	 * @param publishEvery the number of learning episodes between snapshots; at least 1
+	 */
+	public void setPolicyServer(PolicyServer policyServer, int publishEvery){
+		if(publishEvery < 1){
+			throw new IllegalArgumentException("publishEvery must be at least 1; got " + publishEvery);
+		}
+		this.policyServer = policyServer;
+		this.publishEvery = publishEvery;
+		policyServer.publish(this.snapshot());
+	}
+
+	/**
+	 * Returns an immutable copy of the current Q-table that other threads can read while learning continues.
+	 */
+	public QTableSnapshot snapshot(){
+		return new QTableSnapshot(this.qTable.copy(), this.hashingFactory, this.actionTypes, this.qinit);
+	}
+
 	@Override
 	public Episode runLearningEpisode(Environment env, int maxSteps) {
 		//initialize our episode object with the initial state of the environment
 		Episode e = new Episode(env.currentObservation());
+		this.runLearningEpisode(env, maxSteps, e);
+		return e;
+	}
+
+	@Override
+	public int runLearningEpisode(Environment env, int maxSteps, Episode record) {
 
 		//behave until a terminal state or max steps is reached
 		State curState = env.currentObservation();
+		int curId = this.stateId(this.hashingFactory.hashState(curState));
 		int steps = 0;
+		this.lastEpisodeReturn = 0.;
+		this.lastEpisodeTDErrorSum = 0.;
 		while(!env.isInTerminalState() && (steps < maxSteps || maxSteps == -1)){
 
 			//select an action
@@ -73,78 +135,168 @@ public class QLTutorial extends MDPSolver implements LearningAgent, QProvider {
 			//take the action and observe outcome
 			EnvironmentOutcome eo = env.executeAction(a);
 
-			//record result
-			e.transition(eo);
+			//record result if we're keeping this episode
+			if(record != null){
+				record.transition(eo);
+			}
+			this.lastEpisodeReturn += eo.r;
 
 			//get the max Q value of the resulting state if it's not terminal, 0 otherwise
-			double maxQ = eo.terminated ? 0. : this.value(eo.op);
+			int nextId = eo.terminated ? -1 : this.stateId(this.hashingFactory.hashState(eo.op));
+			double maxQ = eo.terminated ? 0. : this.qTable.maxQ(nextId);
 
 			//update the old Q-value
-			QValue oldQ = this.storedQ(curState, a);
-			oldQ.q = oldQ.q + this.learningRate * (eo.r + this.gamma * maxQ - oldQ.q);
-
+			int ordinal = this.qTable.actionOrdinal(a);
+			int slot = this.qTable.slot(curId, ordinal);
+			double oldQ = this.qTable.q(slot);
+			double tdError = eo.r + this.gamma * maxQ - oldQ;
+			this.qTable.setQ(curId, slot, oldQ + this.learningRate * tdError);
+			this.lastEpisodeTDErrorSum += Math.abs(tdError);
+
+			//store the transition and replay a minibatch of past ones
+			if(this.replay != null){
+				this.replay.add(curId, ordinal, eo.r, nextId, eo.terminated);
+				this.replayBatch();
+			}
 
 			//update state pointer to next environment state observed
 			curState = eo.op;
+			curId = nextId;
 			steps++;
 
 		}
 
-		return e;
+		this.episodeFinished(steps);
+		return steps;
 	}
 
-	@Override
-	public void resetSolver() {
-		this.qValues.clear();
+	/**
+	 * Bookkeeping at the end of every learning episode.
+	 */
+	protected void episodeFinished(int steps){
+		this.lastEpisodeSteps = steps;
+
+		//periodically publish a copy of the table for serving threads
+		this.numEpisodes++;
+		if(this.policyServer != null && this.numEpisodes % this.publishEvery == 0){
+			this.policyServer.publish(this.snapshot());
+		}
 	}
 
 	@Override
-	public List<QValue> qValues(State s) {
-		//first get hashed state
-		HashableState sh = this.hashingFactory.hashState(s);
-
-		//check if we already have stored values
-		List<QValue> qs = this.qValues.get(sh);
-
-		//create and add initialized Q-values if we don't have them stored for this state
-		if(qs == null){
-			List<Action> actions = this.applicableActions(s);
-			qs = new ArrayList<QValue>(actions.size());
-			//create a Q-value for each action
-			for(Action a : actions){
-				//add q with initialized value
-				qs.add(new QValue(s, a, this.qinit.qValue(s, a)));
-			}
-			//store this for later
-			this.qValues.put(sh, qs);
-		}
+	public double lastEpisodeReturn() {
+		return this.lastEpisodeReturn;
+	}
 
-		return qs;
+	@Override
+	public double lastEpisodeMeanAbsTDError() {
+		return this.lastEpisodeSteps == 0 ? 0. : this.lastEpisodeTDErrorSum / this.lastEpisodeSteps;
 	}
 
 	@Override
-	public double qValue(State s, Action a) {
-		return storedQ(s, a).q;
+	public int numStoredStates() {
+		return this.qTable.numStates();
 	}
 
+	/**
+	 * Applies the Q-learning update to replayBatchSize transitions sampled from the replay buffer.
+	 */
+	protected void replayBatch(){
+		for(int i = 0; i < this.replayBatchSize; i++){
+			int t = this.replay.sample(this.replayRand);
+			int s = this.replay.state(t);
+			int slot = this.qTable.slot(s, this.replay.action(t));
+			double maxQ = this.replay.terminal(t) ? 0. : this.qTable.maxQ(this.replay.nextState(t));
+			double oldQ = this.qTable.q(slot);
+			this.qTable.setQ(s, slot, oldQ + this.learningRate * (this.replay.reward(t) + this.gamma * maxQ - oldQ));
+		}
+	}
+
+	/**
+	 * Saves the Q-table to a binary checkpoint, encoding states with the given codec.
+	 */
+	public void saveQTable(String path, IntStateCodec codec){
+		TableCheckpoint.writeQTable(path, codec, this.qTable);
+	}
 
-	protected QValue storedQ(State s, Action a){
-		//first get all Q-values
-		List<QValue> qs = this.qValues(s);
+	/**
+	 * Replaces the Q-table with one saved by {@link #saveQTable(String, IntStateCodec)}.
+	 */
+	public void loadQTable(String path, IntStateCodec codec){
+		this.qTable = TableCheckpoint.readQTable(path, codec, this.hashingFactory, this.domain);
+		if(this.replay != null){
+			//stored transitions refer to state ids of the old table
+			this.replay.clear();
+		}
+	}
+
+	@Override
+	public void resetSolver() {
+		this.qTable.clear();
+		if(this.replay != null){
+			//stored transitions refer to state ids of the cleared table
+			this.replay.clear();
+		}
+	}
 
-		//iterate through stored Q-values to find a match for the input action
-		for(QValue q : qs){
-			if(q.a.equals(a)){
-				return q;
+	/**
+	 * Returns the Q-table id of a hashed state, adding the state with initialized Q-values
+	 * if we don't have it stored yet.
+	 */
+	protected int stateId(HashableState sh){
+		int id = this.qTable.stateId(sh);
+		if(id == -1){
+			List<Action> actions = this.applicableActions(sh.s());
+			double [] initialQs = new double[actions.size()];
+			for(int i = 0; i < initialQs.length; i++){
+				initialQs[i] = this.qinit.qValue(sh.s(), actions.get(i));
 			}
+			id = this.qTable.addState(sh, actions, initialQs);
 		}
+		return id;
+	}
 
-		throw new RuntimeException("Could not find matching Q-value.");
+	@Override
+	public List<QValue> qValues(State s) {
+		int id = this.stateId(this.hashingFactory.hashState(s));
+		int start = this.qTable.slotStart(id);
+		int end = this.qTable.slotEnd(id);
+		List<QValue> qs = new ArrayList<QValue>(end - start);
+		for(int j = start; j < end; j++){
+			qs.add(new QValue(s, this.qTable.slotAction(j), this.qTable.q(j)));
+		}
+		return qs;
+	}
+
+	@Override
+	public double qValue(State s, Action a) {
+		int id = this.stateId(this.hashingFactory.hashState(s));
+		int slot = this.qTable.slot(id, this.qTable.findActionOrdinal(a));
+		if(slot == -1){
+			throw new RuntimeException("Could not find matching Q-value.");
+		}
+		return this.qTable.q(slot);
 	}
 
 	@Override
 	public double value(State s) {
-		return QProvider.Helper.maxQ(this, s);
+		return this.qTable.maxQ(this.stateId(this.hashingFactory.hashState(s)));
+	}
+
+	public QTable getQTable() {
+		return this.qTable;
+	}
+
+
+	/**
+	 * {@link EpsilonGreedy} with a caller supplied random number generator.
+	 */
+	protected static class SeededEpsilonGreedy extends EpsilonGreedy {
+
+		public SeededEpsilonGreedy(QProvider planner, double epsilon, Random rand) {
+			super(planner, epsilon);
+			this.rand = rand;
+		}
 	}
 
 
@@ -167,12 +319,17 @@ public class QLTutorial extends MDPSolver implements LearningAgent, QProvider {
 		QLTutorial agent = new QLTutorial(domain, 0.99, new SimpleHashableStateFactory(),
 				new ConstantValueFunction(), 0.1, 0.1);
 
-		//run Q-learning and store results in a list
-		List<Episode> episodes = new ArrayList<Episode>(1000);
-		for(int i = 0; i < 1000; i++){
-			episodes.add(agent.runLearningEpisode(env));
-			env.resetEnvironment();
-		}
+		//uncomment to replay 4 stored transitions after every environment step
+		//agent.setExperienceReplay(10000, 4);
+
+		//run Q-learning, keeping every 50th episode and the last 10
+		LearningStream stream = new LearningStream();
+		stream.setRecordEvery(50);
+		stream.setRecordLast(10);
+		List<Episode> episodes = stream.run(agent, env, 1000);
+
+		//uncomment to save the learned Q-table; loadQTable resumes from it in a later run
+		//agent.saveQTable("ql_qtable.bin", new IntStateCodec((MutableState)s));
 
 		Visualizer v = GridWorldVisualizer.getVisualizer(gwd.getMap());
 		new EpisodeSequenceVisualizer(v, domain, episodes);
@@ -0,0 +1,205 @@
+package edu.brown.cs.burlap.tutorials;
+
+import burlap.behavior.singleagent.Episode;
+import burlap.behavior.valuefunction.ConstantValueFunction;
+import burlap.behavior.valuefunction.QFunction;
+import burlap.mdp.core.action.Action;
+import burlap.mdp.core.state.State;
+import burlap.mdp.singleagent.SADomain;
+import burlap.mdp.singleagent.environment.Environment;
+import burlap.mdp.singleagent.environment.EnvironmentOutcome;
+import burlap.mdp.singleagent.environment.SimulatedEnvironment;
+import burlap.statehashing.HashableStateFactory;
+import burlap.statehashing.simple.SimpleHashableStateFactory;
+import edu.brown.cs.burlap.tutorials.domain.simple.TrafficLightGridState;
+import edu.brown.cs.burlap.tutorials.domain.simple.TrafficLightGridWorld;
+
+import java.util.Arrays;
+
+/**
+ * Watkins's Q(lambda): {@link QLTutorial} with replacing eligibility traces. Only the traces that are
+ * active are stored, in a sparse set of (Q-table slot, state, trace) entries, and traces that decay
+ * below a threshold are dropped, so each step costs time proportional to the number of active traces
+ * rather than to the size of the table. Following Watkins, all traces are cut whenever the learning
+ * policy takes a non-greedy action.
+ * <p>
+ * Experience replay is not used by this learner.
+ */
+public class QLambdaTutorial extends QLTutorial {
+
+	protected double lambda;
+	protected double traceThreshold;
+
+	//sparse set of active traces
+	protected int [] traceSlots = new int[16];
+	protected int [] traceStates = new int[16];
+	protected double [] traceValues = new double[16];
+	protected int numTraces;
+
+	//position of each Q-table slot in the trace set, or -1
+	protected int [] tracePositions = new int[0];
+
+
+	/**
+	 * @param lambda the trace decay parameter
+	 * @param traceThreshold traces smaller than this are dropped
+	 */
+	public QLambdaTutorial(SADomain domain, double gamma, HashableStateFactory hashingFactory,
+						   QFunction qinit, double learningRate, double epsilon,
+						   double lambda, double traceThreshold) {
+		super(domain, gamma, hashingFactory, qinit, learningRate, epsilon);
+		this.lambda = lambda;
+		this.traceThreshold = traceThreshold;
+	}
+
+	public int numActiveTraces() {
+		return this.numTraces;
+	}
+
+	@Override
+	public int runLearningEpisode(Environment env, int maxSteps, Episode record) {
+
+		this.clearTraces();
+
+		State curState = env.currentObservation();
+		int curId = this.stateId(this.hashingFactory.hashState(curState));
+		Action a = this.learningPolicy.action(curState);
+		int steps = 0;
+		this.lastEpisodeReturn = 0.;
+		this.lastEpisodeTDErrorSum = 0.;
+		while(!env.isInTerminalState() && (steps < maxSteps || maxSteps == -1)){
+
+			EnvironmentOutcome eo = env.executeAction(a);
+			if(record != null){
+				record.transition(eo);
+			}
+			this.lastEpisodeReturn += eo.r;
+
+			//choose the next action now, so we know whether it is greedy
+			int nextId = -1;
+			Action nextA = null;
+			boolean nextGreedy = false;
+			double maxQ = 0.;
+			if(!eo.terminated){
+				nextId = this.stateId(this.hashingFactory.hashState(eo.op));
+				nextA = this.learningPolicy.action(eo.op);
+				maxQ = this.qTable.maxQ(nextId);
+				nextGreedy = this.qTable.q(this.qTable.slot(nextId, this.qTable.actionOrdinal(nextA))) == maxQ;
+			}
+
+			int slot = this.qTable.slot(curId, this.qTable.actionOrdinal(a));
+			double tdError = eo.r + this.gamma * maxQ - this.qTable.q(slot);
+			this.lastEpisodeTDErrorSum += Math.abs(tdError);
+
+			//replacing trace for the pair just taken, then update every pair with an active trace
+			this.setTrace(slot, curId, 1.);
+			double step = this.learningRate * tdError;
+			for(int i = 0; i < this.numTraces; i++){
+				int j = this.traceSlots[i];
+				this.qTable.setQ(this.traceStates[i], j, this.qTable.q(j) + step * this.traceValues[i]);
+			}
+
+			if(nextGreedy){
+				this.decayTraces(this.gamma * this.lambda);
+			}
+			else{
+				this.clearTraces();
+			}
+
+			curState = eo.op;
+			curId = nextId;
+			a = nextA;
+			steps++;
+		}
+
+		this.episodeFinished(steps);
+		return steps;
+	}
+
+	protected void setTrace(int slot, int stateId, double value){
+		if(slot >= this.tracePositions.length){
+			int old = this.tracePositions.length;
+			this.tracePositions = Arrays.copyOf(this.tracePositions, Math.max(slot + 1, old * 2));
+			Arrays.fill(this.tracePositions, old, this.tracePositions.length, -1);
+		}
+		int pos = this.tracePositions[slot];
+		if(pos == -1){
+			if(this.numTraces == this.traceSlots.length){
+				int ncap = this.traceSlots.length * 2;
+				this.traceSlots = Arrays.copyOf(this.traceSlots, ncap);
+				this.traceStates = Arrays.copyOf(this.traceStates, ncap);
+				this.traceValues = Arrays.copyOf(this.traceValues, ncap);
+			}
+			pos = this.numTraces++;
+			this.traceSlots[pos] = slot;
+			this.traceStates[pos] = stateId;
+			this.tracePositions[slot] = pos;
+		}
+		this.traceValues[pos] = value;
+	}
+
+	/**
+	 * Multiplies every active trace by the decay and drops those that fall below the threshold.
+	 */
+	protected void decayTraces(double decay){
+		int i = 0;
+		while(i < this.numTraces){
+			double v = this.traceValues[i] * decay;
+			if(v < this.traceThreshold){
+				//move the last entry into this position
+				this.tracePositions[this.traceSlots[i]] = -1;
+				int last = --this.numTraces;
+				if(i != last){
+					this.traceSlots[i] = this.traceSlots[last];
+					this.traceStates[i] = this.traceStates[last];
+					this.traceValues[i] = this.traceValues[last];
+					this.tracePositions[this.traceSlots[i]] = i;
+				}
+			}
+			else{
+				this.traceValues[i] = v;
+				i++;
+			}
+		}
+	}
+
+	protected void clearTraces(){
+		for(int i = 0; i < this.numTraces; i++){
+			this.tracePositions[this.traceSlots[i]] = -1;
+		}
+		this.numTraces = 0;
+	}
+
+	@Override
+	public void resetSolver() {
+		super.resetSolver();
+		this.clearTraces();
+	}
+
+
+	public static void main(String[] args) {
+
+		TrafficLightGridWorld gen = new TrafficLightGridWorld();
+		gen.setTransitionProbabilities(0.3, 0.9, 0.8);
+		gen.setRewards(20.0, -20.0, -1.0, -2.0, -3.0);
+		SADomain domain = gen.generateDomain();
+		State s = new TrafficLightGridState(0, TrafficLightGridWorld.GREEN);
+
+		//compare the environment steps one-step Q-learning and Q(lambda) spend in their first 100 episodes
+		QLTutorial [] agents = new QLTutorial[]{
+				new QLTutorial(domain, 0.99, new SimpleHashableStateFactory(), new ConstantValueFunction(), 0.1, 0.1),
+				new QLambdaTutorial(domain, 0.99, new SimpleHashableStateFactory(), new ConstantValueFunction(), 0.1, 0.1, 0.9, 0.01)
+		};
+		for(QLTutorial agent : agents){
+			SimulatedEnvironment env = new SimulatedEnvironment(domain, s);
+			long steps = 0;
+			for(int i = 0; i < 100; i++){
+				steps += agent.runLearningEpisode(env, -1, null);
+				env.resetEnvironment();
+			}
+			System.out.println(agent.getClass().getSimpleName() + ": " + steps + " steps, V(s0) = " + agent.value(s));
+		}
+
+	}
+
+}
@@ -0,0 +1,257 @@
+package edu.brown.cs.burlap.tutorials;
+
+import burlap.mdp.core.action.Action;
+import burlap.statehashing.HashableState;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A tabular Q-function stored in flat primitive arrays. States get dense int ids in the order they are
+ * added and actions get ordinals shared across all states. The Q-values of a state occupy a contiguous
+ * block of slots in a single double array, and the maximum Q-value of every state is maintained
+ * incrementally as values are set, so reading a state value never scans its actions.
+ */
+public class QTable {
+
+	//state index
+	protected Map<HashableState, Integer> stateIds;
+	protected HashableState [] states;
+	protected int numStates;
+
+	//the slots of state i are [slotOffsets[i], slotOffsets[i+1])
+	protected int [] slotOffsets;
+	protected int numSlots;
+
+	//per slot action ordinal and Q-value
+	protected int [] slotActions;
+	protected double [] qs;
+
+	//per state maximum Q-value and the slot holding it
+	protected double [] maxQs;
+	protected int [] argMaxSlots;
+
+	//action ordinals
+	protected Map<Action, Integer> actionOrdinals;
+	protected List<Action> actions;
+
+
+	public QTable() {
+		this(64, 4);
+	}
+
+	public QTable(int stateCapacity, int actionsPerState) {
+		this.stateIds = new HashMap<HashableState, Integer>(Math.max(16, stateCapacity * 4 / 3));
+		this.states = new HashableState[stateCapacity];
+		this.slotOffsets = new int[stateCapacity + 1];
+		this.maxQs = new double[stateCapacity];
+		this.argMaxSlots = new int[stateCapacity];
+		this.slotActions = new int[stateCapacity * actionsPerState];
+		this.qs = new double[stateCapacity * actionsPerState];
+		this.actionOrdinals = new HashMap<Action, Integer>();
+		this.actions = new ArrayList<Action>();
+	}
+
+
+	/**
+	 * Returns an independent copy of this table. A copy that is never modified can be read by any number of threads.
+	 */
+	public QTable copy() {
+		QTable c = new QTable(0, 0);
+		c.stateIds = new HashMap<HashableState, Integer>(this.stateIds);
+		c.states = Arrays.copyOf(this.states, this.numStates);
+		c.numStates = this.numStates;
+		c.slotOffsets = Arrays.copyOf(this.slotOffsets, this.numStates + 1);
+		c.numSlots = this.numSlots;
+		c.slotActions = Arrays.copyOf(this.slotActions, this.numSlots);
+		c.qs = Arrays.copyOf(this.qs, this.numSlots);
+		c.maxQs = Arrays.copyOf(this.maxQs, this.numStates);
+		c.argMaxSlots = Arrays.copyOf(this.argMaxSlots, this.numStates);
+		c.actionOrdinals = new HashMap<Action, Integer>(this.actionOrdinals);
+		c.actions = new ArrayList<Action>(this.actions);
+		return c;
+	}
+
+	public int numStates() {
+		return this.numStates;
+	}
+
+	public int numSlots() {
+		return this.numSlots;
+	}
+
+	public int numActionOrdinals() {
+		return this.actions.size();
+	}
+
+	/**
+	 * Returns the id of a state or -1 if it is not in the table.
+	 */
+	public int stateId(HashableState sh) {
+		Integer id = this.stateIds.get(sh);
+		if(id == null){
+			return -1;
+		}
+		return id;
+	}
+
+	public HashableState hashedState(int s) {
+		return this.states[s];
+	}
+
+	/**
+	 * Returns the ordinal of an action, assigning the next free ordinal if the action has not been seen before.
+	 */
+	public int actionOrdinal(Action a) {
+		Integer ord = this.actionOrdinals.get(a);
+		if(ord == null){
+			ord = this.actions.size();
+			this.actionOrdinals.put(a, ord);
+			this.actions.add(a);
+		}
+		return ord;
+	}
+
+	/**
+	 * Returns the ordinal of an action, or -1 if the action has not been seen before. Unlike
+	 * {@link #actionOrdinal(Action)} this never modifies the table.
+	 */
+	public int findActionOrdinal(Action a) {
+		Integer ord = this.actionOrdinals.get(a);
+		if(ord == null){
+			return -1;
+		}
+		return ord;
+	}
+
+	public Action actionForOrdinal(int ordinal) {
+		return this.actions.get(ordinal);
+	}
+
+	/**
+	 * Adds a state with the given applicable actions and initial Q-values and returns its id.
+	 * The state must not already be in the table.
+	 */
+	public int addState(HashableState sh, List<Action> stateActions, double [] initialQs) {
+
+		int n = stateActions.size();
+		if(this.numStates + 1 >= this.slotOffsets.length){
+			int ncap = Math.max(16, this.states.length * 2);
+			this.states = Arrays.copyOf(this.states, ncap);
+			this.slotOffsets = Arrays.copyOf(this.slotOffsets, ncap + 1);
+			this.maxQs = Arrays.copyOf(this.maxQs, ncap);
+			this.argMaxSlots = Arrays.copyOf(this.argMaxSlots, ncap);
+		}
+		if(this.numSlots + n > this.qs.length){
+			int ncap = Math.max(this.numSlots + n, this.qs.length * 2);
+			this.slotActions = Arrays.copyOf(this.slotActions, ncap);
+			this.qs = Arrays.copyOf(this.qs, ncap);
+		}
+
+		int id = this.numStates;
+		this.states[id] = sh;
+		this.stateIds.put(sh, id);
+		this.slotOffsets[id] = this.numSlots;
+
+		double max = n > 0 ? Double.NEGATIVE_INFINITY : 0.;
+		int argMax = -1;
+		for(int i = 0; i < n; i++){
+			int slot = this.numSlots + i;
+			this.slotActions[slot] = this.actionOrdinal(stateActions.get(i));
+			this.qs[slot] = initialQs[i];
+			if(initialQs[i] > max){
+				max = initialQs[i];
+				argMax = slot;
+			}
+		}
+		this.maxQs[id] = max;
+		this.argMaxSlots[id] = argMax;
+
+		this.numSlots += n;
+		this.numStates++;
+		this.slotOffsets[this.numStates] = this.numSlots;
+
+		return id;
+	}
+
+	public int slotStart(int s) {
+		return this.slotOffsets[s];
+	}
+
+	public int slotEnd(int s) {
+		return this.slotOffsets[s+1];
+	}
+
+	/**
+	 * Returns the slot of the action with the given ordinal in state s, or -1 if it is not applicable there.
+	 */
+	public int slot(int s, int actionOrdinal) {
+		int end = this.slotOffsets[s+1];
+		for(int j = this.slotOffsets[s]; j < end; j++){
+			if(this.slotActions[j] == actionOrdinal){
+				return j;
+			}
+		}
+		return -1;
+	}
+
+	public int slotActionOrdinal(int slot) {
+		return this.slotActions[slot];
+	}
+
+	public Action slotAction(int slot) {
+		return this.actions.get(this.slotActions[slot]);
+	}
+
+	public double q(int slot) {
+		return this.qs[slot];
+	}
+
+	/**
+	 * Sets the Q-value of a slot of state s and updates the maximum of s.
+	 */
+	public void setQ(int s, int slot, double q) {
+		this.qs[slot] = q;
+		if(q >= this.maxQs[s]){
+			this.maxQs[s] = q;
+			this.argMaxSlots[s] = slot;
+		}
+		else if(slot == this.argMaxSlots[s]){
+			//the maximum went down; rescan this state's slots
+			int end = this.slotOffsets[s+1];
+			double max = Double.NEGATIVE_INFINITY;
+			int argMax = -1;
+			for(int j = this.slotOffsets[s]; j < end; j++){
+				if(this.qs[j] > max){
+					max = this.qs[j];
+					argMax = j;
+				}
+			}
+			this.maxQs[s] = max;
+			this.argMaxSlots[s] = argMax;
+		}
+	}
+
+	/**
+	 * Maximum Q-value of state s; 0 for states without actions.
+	 */
+	public double maxQ(int s) {
+		return this.maxQs[s];
+	}
+
+	public int argMaxSlot(int s) {
+		return this.argMaxSlots[s];
+	}
+
+	public void clear() {
+		this.stateIds.clear();
+		Arrays.fill(this.states, 0, this.numStates, null);
+		this.numStates = 0;
+		this.numSlots = 0;
+		this.slotOffsets[0] = 0;
+	}
+
+}
@@ -0,0 +1,101 @@
+package edu.brown.cs.burlap.tutorials;
+
+import burlap.behavior.valuefunction.QFunction;
+import burlap.behavior.valuefunction.QProvider;
+import burlap.behavior.valuefunction.QValue;
+import burlap.mdp.core.action.Action;
+import burlap.mdp.core.action.ActionType;
+import burlap.mdp.core.action.ActionUtils;
+import burlap.mdp.core.state.State;
+import burlap.statehashing.HashableStateFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A read-only {@link QProvider} view of a {@link QTable} that is no longer being written to, such as a
+ * copy taken from a learner at some point in training. States that are not in the table are answered
+ * with the initial Q-values of their applicable actions.
+ */
+public class QTableSnapshot implements QProvider {
+
+	protected QTable table;
+	protected HashableStateFactory hashingFactory;
+	protected List<ActionType> actionTypes;
+	protected QFunction qinit;
+
+
+	public QTableSnapshot(QTable table, HashableStateFactory hashingFactory, List<ActionType> actionTypes, QFunction qinit) {
+		this.table = table;
+		this.hashingFactory = hashingFactory;
+		this.actionTypes = actionTypes;
+		this.qinit = qinit;
+	}
+
+	public QTable getTable() {
+		return this.table;
+	}
+
+	@Override
+	public List<QValue> qValues(State s) {
+		int id = this.table.stateId(this.hashingFactory.hashState(s));
+		if(id == -1){
+			List<Action> actions = ActionUtils.allApplicableActionsForTypes(this.actionTypes, s);
+			List<QValue> qs = new ArrayList<QValue>(actions.size());
+			for(Action a : actions){
+				qs.add(new QValue(s, a, this.qinit.qValue(s, a)));
+			}
+			return qs;
+		}
+		int start = this.table.slotStart(id);
+		int end = this.table.slotEnd(id);
+		List<QValue> qs = new ArrayList<QValue>(end - start);
+		for(int j = start; j < end; j++){
+			qs.add(new QValue(s, this.table.slotAction(j), this.table.q(j)));
+		}
+		return qs;
+	}
+
+	@Override
+	public double qValue(State s, Action a) {
+		int id = this.table.stateId(this.hashingFactory.hashState(s));
+		if(id != -1){
+			int slot = this.table.slot(id, this.table.findActionOrdinal(a));
+			if(slot != -1){
+				return this.table.q(slot);
+			}
+		}
+		return this.qinit.qValue(s, a);
+	}
+
+	/**
+	 * Returns an action with the maximum Q-value in s. For states in the table this is the stored
+	 * maximizing action, so no Q-values are compared; ties are not broken randomly.
+	 */
+	public Action greedyAction(State s) {
+		int id = this.table.stateId(this.hashingFactory.hashState(s));
+		if(id != -1){
+			int slot = this.table.argMaxSlot(id);
+			return slot == -1 ? null : this.table.slotAction(slot);
+		}
+		Action best = null;
+		double max = Double.NEGATIVE_INFINITY;
+		for(QValue q : this.qValues(s)){
+			if(q.q > max){
+				max = q.q;
+				best = q.a;
+			}
+		}
+		return best;
+	}
+
+	@Override
+	public double value(State s) {
+		int id = this.table.stateId(this.hashingFactory.hashState(s));
+		if(id == -1){
+			return QProvider.Helper.maxQ(this, s);
+		}
+		return this.table.maxQ(id);
+	}
+
+}
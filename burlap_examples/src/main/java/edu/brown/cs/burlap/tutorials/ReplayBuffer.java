@@ -0,0 +1,87 @@
+package edu.brown.cs.burlap.tutorials;
+
+import java.util.Random;
+
+/**
+ * A fixed capacity ring buffer of tabular transitions for experience replay. Each transition is stored
+ * as packed primitives: the learner's id for the state, the ordinal of the action, the reward, the id
+ * of the next state and whether the next state is terminal. Once full, new transitions overwrite the
+ * oldest ones.
+ */
+public class ReplayBuffer {
+
+	protected int [] states;
+	protected int [] actions;
+	protected double [] rewards;
+	protected int [] nextStates;
+	protected boolean [] terminals;
+
+	//index the next transition is written to
+	protected int head;
+	protected int size;
+
+
+	public ReplayBuffer(int capacity) {
+		if(capacity <= 0){
+			throw new IllegalArgumentException("Replay buffer capacity must be positive.");
+		}
+		this.states = new int[capacity];
+		this.actions = new int[capacity];
+		this.rewards = new double[capacity];
+		this.nextStates = new int[capacity];
+		this.terminals = new boolean[capacity];
+	}
+
+	public void add(int s, int a, double r, int ns, boolean terminal){
+		this.states[this.head] = s;
+		this.actions[this.head] = a;
+		this.rewards[this.head] = r;
+		this.nextStates[this.head] = ns;
+		this.terminals[this.head] = terminal;
+		this.head = (this.head + 1) % this.states.length;
+		if(this.size < this.states.length){
+			this.size++;
+		}
+	}
+
+	/**
+	 * Returns the index of a uniformly sampled stored transition. The buffer must not be empty.
+	 */
+	public int sample(Random rand){
+		return rand.nextInt(this.size);
+	}
+
+	public int size() {
+		return this.size;
+	}
+
+	public int capacity() {
+		return this.states.length;
+	}
+
+	public int state(int i) {
+		return this.states[i];
+	}
+
+	public int action(int i) {
+		return this.actions[i];
+	}
+
+	public double reward(int i) {
+		return this.rewards[i];
+	}
+
+	public int nextState(int i) {
+		return this.nextStates[i];
+	}
+
+	public boolean terminal(int i) {
+		return this.terminals[i];
+	}
+
+	public void clear(){
+		this.head = 0;
+		this.size = 0;
+	}
+
+}
@@ -0,0 +1,135 @@
+package edu.brown.cs.burlap.tutorials;
+
+import burlap.behavior.policy.GreedyQPolicy;
+import burlap.behavior.policy.Policy;
+import burlap.behavior.policy.PolicyUtils;
+import burlap.behavior.singleagent.Episode;
+import burlap.behavior.singleagent.auxiliary.EpisodeSequenceVisualizer;
+import burlap.behavior.valuefunction.ConstantValueFunction;
+import burlap.behavior.valuefunction.ValueFunction;
+import burlap.mdp.core.state.State;
+import burlap.mdp.singleagent.SADomain;
+import burlap.statehashing.HashableStateFactory;
+import burlap.statehashing.simple.SimpleHashableStateFactory;
+import burlap.visualizer.Visualizer;
+import edu.brown.cs.burlap.tutorials.domain.simple.TrafficLightGridState;
+import edu.brown.cs.burlap.tutorials.domain.simple.TrafficLightGridWorld;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Value iteration that splits the reachable state graph into strongly connected components and solves
+ * them one at a time in reverse topological order, so every component is solved against already
+ * converged downstream values. A component that is a single state without a self loop needs exactly one
+ * backup; larger components are swept until their largest value change is below maxDelta. On acyclic
+ * or nearly acyclic graphs this needs only a few backups per state.
+ */
+public class SCCValueIteration extends DenseValueIteration {
+
+	protected double maxDelta;
+	protected int numBackups;
+	protected int numComponents;
+
+
+	/**
+	 * @param maxDelta a component is converged when a sweep over it changes no value by more than this
+	 * @param maxIterations the maximum number of sweeps over any single component
+	 */
+	public SCCValueIteration(SADomain domain, double gamma,
+							 HashableStateFactory hashingFactory, ValueFunction vinit, double maxDelta, int maxIterations){
+		super(domain, gamma, hashingFactory, vinit, maxIterations);
+		this.maxDelta = maxDelta;
+	}
+
+	/**
+	 * Returns the number of value backups performed by the last planning call.
+	 */
+	public int getNumBackups() {
+		return this.numBackups;
+	}
+
+	/**
+	 * Returns the number of strongly connected components found by the last planning call.
+	 */
+	public int getNumComponents() {
+		return this.numComponents;
+	}
+
+	@Override
+	public GreedyQPolicy planFromState(State initialState) {
+
+		if(this.mdp != null && this.mdp.stateId(initialState) != -1){
+			return new GreedyQPolicy(this); //already performed planning here!
+		}
+
+		this.compileFrom(initialState);
+
+		List<int []> components = this.mdp.stronglyConnectedComponents();
+		this.numComponents = components.size();
+		this.numBackups = 0;
+
+		//components come out sinks first, so each is solved after everything it can reach
+		for(int [] component : components){
+			if(component.length == 1 && !this.hasSelfLoop(component[0])){
+				this.values[component[0]] = this.mdp.maxQ(component[0], this.values, this.gamma);
+				this.numBackups++;
+				continue;
+			}
+			for(int i = 0; i < this.numIterations; i++){
+				double delta = 0.;
+				for(int s : component){
+					double v = this.mdp.maxQ(s, this.values, this.gamma);
+					delta = Math.max(delta, Math.abs(v - this.values[s]));
+					this.values[s] = v;
+				}
+				this.numBackups += component.length;
+				if(delta < this.maxDelta){
+					break;
+				}
+			}
+		}
+
+		return new GreedyQPolicy(this);
+	}
+
+	protected boolean hasSelfLoop(int s){
+		int end = this.mdp.outcomeStart(this.mdp.saEnd(s));
+		for(int o = this.mdp.outcomeStart(this.mdp.saStart(s)); o < end; o++){
+			if(this.mdp.successor(o) == s){
+				return true;
+			}
+		}
+		return false;
+	}
+
+
+	public static void main(String [] args){
+
+		TrafficLightGridWorld gen = new TrafficLightGridWorld();
+		gen.setTransitionProbabilities(0.3, 0.9, 0.8);
+		gen.setRewards(100, -100.0, -1.0, -2.0, -3.0);
+		gen.setGoalLocation(10);
+		gen.setLightLocation(6);
+		SADomain domain = gen.generateDomain();
+
+		State initialState = new TrafficLightGridState(0, TrafficLightGridWorld.GREEN);
+
+		SCCValueIteration vi = new SCCValueIteration(domain, 0.99, new SimpleHashableStateFactory(),
+				new ConstantValueFunction(0.0), 0.001, 1000);
+
+		Policy p = vi.planFromState(initialState);
+		System.out.println(vi.getNumComponents() + " components, " + vi.getNumBackups() + " backups over "
+				+ vi.getDenseMDP().numStates() + " states");
+
+		List<Episode> episodes = new ArrayList<Episode>(10);
+		for (int i = 0; i < 10; i++) {
+			episodes.add(PolicyUtils.rollout(p, initialState, domain.getModel()));
+		}
+
+		Visualizer v = gen.getVisualizer();
+		new EpisodeSequenceVisualizer(v, domain, episodes);
+
+	}
+
+}
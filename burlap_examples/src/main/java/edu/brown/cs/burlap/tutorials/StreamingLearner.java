@@ -0,0 +1,28 @@
+package edu.brown.cs.burlap.tutorials;
+
+import burlap.behavior.singleagent.Episode;
+import burlap.behavior.singleagent.learning.LearningAgent;
+import burlap.mdp.singleagent.environment.Environment;
+
+/**
+ * A {@link LearningAgent} that can run a learning episode without building an {@link Episode} for it.
+ * Used with {@link LearningStream} for long runs in which only a few episodes, or none, need to be kept.
+ */
+public interface StreamingLearner extends LearningAgent {
+
+	/**
+	 * Runs one learning episode in the environment. If record is not null, the transitions of the episode
+	 * are appended to it; otherwise nothing is recorded.
+	 * @param env the environment in which to learn
+	 * @param maxSteps the maximum number of steps; -1 for no limit
+	 * @param record the episode to record into, or null
+	 * @return the number of steps taken
+	 */
+	int runLearningEpisode(Environment env, int maxSteps, Episode record);
+
+	/**
+	 * Returns the undiscounted sum of rewards received in the most recent learning episode.
+	 */
+	double lastEpisodeReturn();
+
+}
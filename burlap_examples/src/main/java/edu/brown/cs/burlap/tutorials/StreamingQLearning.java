@@ -0,0 +1,223 @@
+package edu.brown.cs.burlap.tutorials;
+
+import burlap.behavior.policy.EpsilonGreedy;
+import burlap.behavior.singleagent.Episode;
+import burlap.behavior.singleagent.learning.tdmethods.QLearning;
+import burlap.behavior.singleagent.learning.tdmethods.QLearningStateNode;
+import burlap.behavior.singleagent.options.EnvironmentOptionOutcome;
+import burlap.behavior.singleagent.options.Option;
+import burlap.behavior.valuefunction.QValue;
+import burlap.mdp.core.action.Action;
+import burlap.mdp.singleagent.SADomain;
+import burlap.mdp.singleagent.environment.Environment;
+import burlap.mdp.singleagent.environment.EnvironmentOutcome;
+import burlap.statehashing.HashableState;
+import burlap.statehashing.HashableStateFactory;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * BURLAP's {@link QLearning} with a learning episode loop that only builds an {@link Episode} when asked to.
+ * The updates are the same as those of {@link QLearning#runLearningEpisode(Environment, int)}, including
+ * option handling, so recorded and unrecorded episodes learn identically. Experience replay of primitive
+ * transitions can optionally be enabled with {@link #setExperienceReplay(int, int)}.
+ */
+public class StreamingQLearning extends QLearning implements StreamingLearner, LearningStatistics {
+
+	protected double lastEpisodeReturn;
+	protected double lastEpisodeTDErrorSum;
+	protected int lastEpisodeUpdates;
+
+	//experience replay; disabled when null
+	protected ReplayBuffer replay;
+	protected int replayBatchSize;
+	protected Random replayRand = new Random(0);
+
+	//dense ids of the state nodes referenced by the replay buffer
+	protected Map<HashableState, Integer> nodeIds = new HashMap<HashableState, Integer>();
+	protected List<QLearningStateNode> nodes = new ArrayList<QLearningStateNode>();
+
+
+	public StreamingQLearning(SADomain domain, double gamma, HashableStateFactory hashingFactory,
+							  double qInit, double learningRate) {
+		super(domain, gamma, hashingFactory, qInit, learningRate);
+	}
+
+	/**
+	 * Enables experience replay: every observed primitive transition is stored in a ring buffer of the given
+	 * capacity, and after each environment step batchSize stored transitions are sampled and replayed.
+	 * Option executions are not stored.
+	 */
+	public void setExperienceReplay(int capacity, int batchSize){
+		this.replay = new ReplayBuffer(capacity);
+		this.replayBatchSize = batchSize;
+	}
+
+	public void disableExperienceReplay(){
+		this.replay = null;
+		this.clearNodeIds();
+	}
+
+	/**
+	 * Makes replay sampling, and exploration if the learning policy is epsilon greedy, draw from the given
+	 * generator, for example a stream of a {@link edu.brown.cs.burlap.tutorials.domain.RandomStreams}.
+	 */
+	public void setRandom(Random rand){
+		if(this.learningPolicy instanceof EpsilonGreedy){
+			this.learningPolicy = new QLTutorial.SeededEpsilonGreedy(this, ((EpsilonGreedy)this.learningPolicy).getEpsilon(), rand);
+		}
+		this.replayRand = rand;
+	}
+
+	@Override
+	public Episode runLearningEpisode(Environment env, int maxSteps) {
+		Episode e = new Episode(env.currentObservation());
+		this.runLearningEpisode(env, maxSteps, e);
+		return e;
+	}
+
+	@Override
+	public int runLearningEpisode(Environment env, int maxSteps, Episode record) {
+
+		HashableState curState = this.stateHash(env.currentObservation());
+		this.eStepCounter = 0;
+		this.maxQChangeInLastEpisode = 0.;
+		this.lastEpisodeReturn = 0.;
+		this.lastEpisodeTDErrorSum = 0.;
+		this.lastEpisodeUpdates = 0;
+
+		while(!env.isInTerminalState() && (this.eStepCounter < maxSteps || maxSteps == -1)){
+
+			Action action = this.learningPolicy.action(curState.s());
+
+			//the same search as QLearning's getQ, keeping the index of the action for the replay buffer
+			List<QValue> qs = this.getStateNode(curState).qEntry;
+			int actionIndex = 0;
+			while(actionIndex < qs.size() && !qs.get(actionIndex).a.equals(action)){
+				actionIndex++;
+			}
+			if(actionIndex == qs.size()){
+				throw new RuntimeException("Could not find Q-value for action " + action + " in the selected state");
+			}
+			QValue curQ = qs.get(actionIndex);
+
+			EnvironmentOutcome eo;
+			if(!(action instanceof Option)){
+				eo = env.executeAction(action);
+			}
+			else{
+				eo = ((Option)action).control(env, this.gamma);
+			}
+
+			HashableState nextState = this.stateHash(eo.op);
+			double maxQ = eo.terminated ? 0. : this.getMaxQ(nextState);
+
+			//options report their own discount and number of steps
+			double discount = eo instanceof EnvironmentOptionOutcome ? ((EnvironmentOptionOutcome)eo).discount : this.gamma;
+			this.eStepCounter += eo instanceof EnvironmentOptionOutcome ? ((EnvironmentOptionOutcome)eo).numSteps() : 1;
+			this.lastEpisodeReturn += eo.r;
+
+			if(record != null){
+				if(!(action instanceof Option) || !this.shouldDecomposeOptions){
+					record.transition(action, nextState.s(), eo.r);
+				}
+				else{
+					record.appendAndMergeEpisodeAnalysis(((EnvironmentOptionOutcome)eo).episode);
+				}
+			}
+
+			double oldQ = curQ.q;
+			double tdError = eo.r + (discount * maxQ) - curQ.q;
+			curQ.q = curQ.q + this.learningRate.pollLearningRate(this.totalNumberOfSteps, curState.s(), action) * tdError;
+			this.lastEpisodeTDErrorSum += Math.abs(tdError);
+			this.lastEpisodeUpdates++;
+			this.maxQChangeInLastEpisode = Math.max(this.maxQChangeInLastEpisode, Math.abs(oldQ - curQ.q));
+
+			//store the transition and replay a minibatch of past ones
+			if(this.replay != null && !(action instanceof Option)){
+				int s = this.nodeId(curState);
+				int ns = eo.terminated ? -1 : this.nodeId(nextState);
+				this.replay.add(s, actionIndex, eo.r, ns, eo.terminated);
+				this.replayBatch();
+			}
+
+			//poll the environment in case its state changed during processing
+			curState = this.stateHash(env.currentObservation());
+			this.totalNumberOfSteps++;
+		}
+
+		return this.eStepCounter;
+	}
+
+	/**
+	 * Returns the replay id of a state, assigning the next free id if it does not have one yet.
+	 */
+	protected int nodeId(HashableState sh){
+		Integer id = this.nodeIds.get(sh);
+		if(id == null){
+			id = this.nodes.size();
+			this.nodes.add(this.getStateNode(sh));
+			this.nodeIds.put(sh, id);
+		}
+		return id;
+	}
+
+	/**
+	 * Applies the Q-learning update to replayBatchSize transitions sampled from the replay buffer.
+	 */
+	protected void replayBatch(){
+		for(int i = 0; i < this.replayBatchSize; i++){
+			int t = this.replay.sample(this.replayRand);
+			QLearningStateNode node = this.nodes.get(this.replay.state(t));
+			QValue q = node.qEntry.get(this.replay.action(t));
+			double maxQ = 0.;
+			if(!this.replay.terminal(t)){
+				maxQ = Double.NEGATIVE_INFINITY;
+				for(QValue nq : this.nodes.get(this.replay.nextState(t)).qEntry){
+					maxQ = Math.max(maxQ, nq.q);
+				}
+			}
+			q.q = q.q + this.learningRate.pollLearningRate(this.totalNumberOfSteps, node.s.s(), q.a) * (this.replay.reward(t) + this.gamma * maxQ - q.q);
+		}
+	}
+
+	protected void clearNodeIds(){
+		this.nodeIds.clear();
+		this.nodes.clear();
+		if(this.replay != null){
+			this.replay.clear();
+		}
+	}
+
+	@Override
+	public void resetSolver() {
+		super.resetSolver();
+		this.clearNodeIds();
+	}
+
+	@Override
+	public void loadQTable(String path) {
+		super.loadQTable(path);
+		this.clearNodeIds();
+	}
+
+	@Override
+	public double lastEpisodeReturn() {
+		return this.lastEpisodeReturn;
+	}
+
+	@Override
+	public double lastEpisodeMeanAbsTDError() {
+		return this.lastEpisodeUpdates == 0 ? 0. : this.lastEpisodeTDErrorSum / this.lastEpisodeUpdates;
+	}
+
+	@Override
+	public int numStoredStates() {
+		return this.qFunction.size();
+	}
+
+}
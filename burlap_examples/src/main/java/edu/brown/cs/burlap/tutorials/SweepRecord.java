@@ -0,0 +1,25 @@
+package edu.brown.cs.burlap.tutorials;
+
+/**
+ * Statistics of a single value iteration sweep: the largest absolute value change (the Bellman residual),
+ * the number of states whose value changed, and the wall-clock time the sweep took.
+ */
+public class SweepRecord {
+
+	public int iteration;
+	public double maxDelta;
+	public int numChanged;
+	public long sweepNanos;
+
+	public SweepRecord(int iteration, double maxDelta, int numChanged, long sweepNanos) {
+		this.iteration = iteration;
+		this.maxDelta = maxDelta;
+		this.numChanged = numChanged;
+		this.sweepNanos = sweepNanos;
+	}
+
+	@Override
+	public String toString() {
+		return iteration + ": maxDelta=" + maxDelta + ", changed=" + numChanged + ", ms=" + (sweepNanos / 1e6);
+	}
+}
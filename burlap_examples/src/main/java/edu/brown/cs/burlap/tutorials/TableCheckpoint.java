@@ -0,0 +1,255 @@
+package edu.brown.cs.burlap.tutorials;
+
+import burlap.mdp.core.action.Action;
+import burlap.mdp.core.action.ActionType;
+import burlap.mdp.core.state.State;
+import burlap.mdp.singleagent.SADomain;
+import burlap.statehashing.HashableState;
+import burlap.statehashing.HashableStateFactory;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Saves and restores tabular value functions and {@link QTable}s in a compact binary file. States are
+ * written as the ints of an {@link IntStateCodec}, actions as ordinals into a list of action names, and
+ * values as doubles. Files are read through a memory map.
+ * <p>
+ * Layout (big endian): magic, version, kind, the codec's variable keys, then for a value function
+ * the number of states followed by fixed size records of (state ints, value). A Q-table additionally
+ * stores its action names, and each state record is (state ints, number of slots), followed by all
+ * slots as (action ordinal, Q-value) in state order.
+ */
+public class TableCheckpoint {
+
+	public static final int MAGIC = 0x42514B50;
+	public static final int VERSION = 1;
+
+	public static final byte KIND_VALUE_FUNCTION = 0;
+	public static final byte KIND_Q_TABLE = 1;
+
+	protected static final Charset UTF8 = Charset.forName("UTF-8");
+
+	private TableCheckpoint() {
+	}
+
+
+	/**
+	 * Writes a state value function.
+	 */
+	public static void writeValueFunction(String path, IntStateCodec codec, Map<HashableState, Double> values){
+		DataOutputStream out = null;
+		try{
+			out = open(path);
+			writeHeader(out, KIND_VALUE_FUNCTION, codec);
+			out.writeInt(values.size());
+			int [] enc = new int[codec.numInts()];
+			for(Map.Entry<HashableState, Double> e : values.entrySet()){
+				codec.encode(e.getKey().s(), enc, 0);
+				for(int v : enc){
+					out.writeInt(v);
+				}
+				out.writeDouble(e.getValue());
+			}
+		} catch(IOException e){
+			throw new RuntimeException(e);
+		} finally{
+			close(out);
+		}
+	}
+
+	/**
+	 * Reads a state value function written by {@link #writeValueFunction(String, IntStateCodec, Map)} into
+	 * the given map, replacing the values of states already in it.
+	 */
+	public static void readValueFunction(String path, IntStateCodec codec, HashableStateFactory hashingFactory,
+										 Map<HashableState, Double> values){
+		ByteBuffer buf = map(path);
+		readHeader(buf, KIND_VALUE_FUNCTION, codec);
+		int n = buf.getInt();
+		int [] enc = new int[codec.numInts()];
+		for(int i = 0; i < n; i++){
+			readInts(buf, enc);
+			values.put(hashingFactory.hashState(codec.decode(enc, 0)), buf.getDouble());
+		}
+	}
+
+	/**
+	 * Writes the states, action ordinals and Q-values of a {@link QTable}.
+	 */
+	public static void writeQTable(String path, IntStateCodec codec, QTable table){
+		DataOutputStream out = null;
+		try{
+			out = open(path);
+			writeHeader(out, KIND_Q_TABLE, codec);
+
+			out.writeInt(table.numActionOrdinals());
+			for(int a = 0; a < table.numActionOrdinals(); a++){
+				writeString(out, table.actionForOrdinal(a).actionName());
+			}
+
+			out.writeInt(table.numStates());
+			out.writeInt(table.numSlots());
+			int [] enc = new int[codec.numInts()];
+			for(int s = 0; s < table.numStates(); s++){
+				codec.encode(table.hashedState(s).s(), enc, 0);
+				for(int v : enc){
+					out.writeInt(v);
+				}
+				out.writeInt(table.slotEnd(s) - table.slotStart(s));
+			}
+			for(int j = 0; j < table.numSlots(); j++){
+				out.writeInt(table.slotActionOrdinal(j));
+				out.writeDouble(table.q(j));
+			}
+		} catch(IOException e){
+			throw new RuntimeException(e);
+		} finally{
+			close(out);
+		}
+	}
+
+	/**
+	 * Reads a Q-table written by {@link #writeQTable(String, IntStateCodec, QTable)}. Action names are
+	 * resolved with the action types of the given domain.
+	 */
+	public static QTable readQTable(String path, IntStateCodec codec, HashableStateFactory hashingFactory, SADomain domain){
+		ByteBuffer buf = map(path);
+		readHeader(buf, KIND_Q_TABLE, codec);
+
+		int numActions = buf.getInt();
+		List<Action> actions = new ArrayList<Action>(numActions);
+		for(int a = 0; a < numActions; a++){
+			String name = readString(buf);
+			ActionType type = domain.getAction(name);
+			if(type == null){
+				throw new RuntimeException("Checkpoint action " + name + " is not in the domain.");
+			}
+			actions.add(type.associatedAction(name));
+		}
+
+		int numStates = buf.getInt();
+		int numSlots = buf.getInt();
+		QTable table = new QTable(Math.max(1, numStates), Math.max(1, numSlots / Math.max(1, numStates)));
+
+		//slots follow all of the state records
+		ByteBuffer slots = buf.duplicate();
+		long slotsStart = buf.position() + (long)numStates * 4 * (codec.numInts() + 1);
+		if(slotsStart > buf.limit()){
+			throw new RuntimeException("Checkpoint " + path + " is truncated.");
+		}
+		slots.position((int)slotsStart);
+
+		int [] enc = new int[codec.numInts()];
+		for(int s = 0; s < numStates; s++){
+			readInts(buf, enc);
+			int n = buf.getInt();
+			List<Action> stateActions = new ArrayList<Action>(n);
+			double [] qs = new double[n];
+			for(int i = 0; i < n; i++){
+				stateActions.add(actions.get(slots.getInt()));
+				qs[i] = slots.getDouble();
+			}
+			State st = codec.decode(enc, 0);
+			table.addState(hashingFactory.hashState(st), stateActions, qs);
+		}
+		return table;
+	}
+
+
+	protected static DataOutputStream open(String path) throws IOException {
+		return new DataOutputStream(new BufferedOutputStream(new FileOutputStream(path), 1 << 16));
+	}
+
+	protected static void close(DataOutputStream out){
+		if(out != null){
+			try{
+				out.close();
+			} catch(IOException e){
+				throw new RuntimeException(e);
+			}
+		}
+	}
+
+	protected static ByteBuffer map(String path){
+		RandomAccessFile file = null;
+		try{
+			file = new RandomAccessFile(path, "r");
+			FileChannel channel = file.getChannel();
+			//the mapping stays valid after the channel is closed
+			return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+		} catch(IOException e){
+			throw new RuntimeException(e);
+		} finally{
+			if(file != null){
+				try{
+					file.close();
+				} catch(IOException e){
+					//nothing to do
+				}
+			}
+		}
+	}
+
+	protected static void writeHeader(DataOutputStream out, byte kind, IntStateCodec codec) throws IOException {
+		out.writeInt(MAGIC);
+		out.writeInt(VERSION);
+		out.writeByte(kind);
+		out.writeInt(codec.numInts());
+		for(Object key : codec.getKeys()){
+			writeString(out, key.toString());
+		}
+	}
+
+	protected static void readHeader(ByteBuffer buf, byte kind, IntStateCodec codec){
+		if(buf.getInt() != MAGIC){
+			throw new RuntimeException("Not a checkpoint file.");
+		}
+		int version = buf.getInt();
+		if(version != VERSION){
+			throw new RuntimeException("Unsupported checkpoint version " + version + ".");
+		}
+		byte fileKind = buf.get();
+		if(fileKind != kind){
+			throw new RuntimeException("Checkpoint holds " + (fileKind == KIND_Q_TABLE ? "a Q-table" : "a value function") + ".");
+		}
+		int numKeys = buf.getInt();
+		if(numKeys != codec.numInts()){
+			throw new RuntimeException("Checkpoint states have " + numKeys + " variables; the codec has " + codec.numInts() + ".");
+		}
+		for(int i = 0; i < numKeys; i++){
+			String key = readString(buf);
+			if(!key.equals(codec.getKeys().get(i).toString())){
+				throw new RuntimeException("Checkpoint variable " + key + " does not match codec variable " + codec.getKeys().get(i) + ".");
+			}
+		}
+	}
+
+	protected static void writeString(DataOutputStream out, String s) throws IOException {
+		byte [] bytes = s.getBytes(UTF8);
+		out.writeInt(bytes.length);
+		out.write(bytes);
+	}
+
+	protected static String readString(ByteBuffer buf){
+		byte [] bytes = new byte[buf.getInt()];
+		buf.get(bytes);
+		return new String(bytes, UTF8);
+	}
+
+	protected static void readInts(ByteBuffer buf, int [] out){
+		for(int i = 0; i < out.length; i++){
+			out[i] = buf.getInt();
+		}
+	}
+
+}
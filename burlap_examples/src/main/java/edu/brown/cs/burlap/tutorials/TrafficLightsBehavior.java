@@ -112,6 +112,13 @@ public class TrafficLightsBehavior {
     }
 
 
+    // Memoize transitions so planners created afterwards stop regenerating identical outcome lists
+    public CachedFullModel useTransitionCache(int maxOutcomes) {
+        CachedFullModel cache = new CachedFullModel((FullModel)domain.getModel(), hashingFactory, maxOutcomes);
+        domain.setModel(cache);
+        return cache;
+    }
+
     public void visualize(String outputPath){
         Visualizer v = gwdg.getVisualizer();
         new EpisodeSequenceVisualizer(v, domain, outputPath);
@@ -130,6 +137,13 @@ public class TrafficLightsBehavior {
         return Double.toString(cumValue / numTrials) + ", " + worstCase;
     }
 
+    // Freeze the greedy policy of a converged planner so rollouts don't repeat its Bellman backups
+    public Policy frozenPolicy(QProvider planner) {
+        List<State> allStates = StateReachability.getReachableStates(
+                initialState, domain, hashingFactory);
+        return GreedyPolicyTable.fromStates(planner, allStates, hashingFactory);
+    }
+
     public void BFSExample(String outputPath){
             
         DeterministicPlanner planner = new BFS(domain, goalCondition, hashingFactory);
@@ -147,7 +161,7 @@ public class TrafficLightsBehavior {
     public void AStarExample(String outputPath){
         Heuristic mdistHeuristic = new Heuristic() {
             public double h(State s) {
-                int currentX = ((TrafficLightGridState)s).x;
+                int currentX = ((TrafficLightGridState)s).getInt(TrafficLightGridWorld.VAR_X);
                 double mdist = Math.abs(currentX - goalX);
                 return mdist;
             }
@@ -165,7 +179,7 @@ public class TrafficLightsBehavior {
         Policy p = planner.planFromState(initialState);
         Episode e = PolicyUtils.rollout(p, initialState, domain.getModel());
         e.write(outputPath + "vi");
-        System.out.println("Value Iteration, " + maxIterations + ", " + averageDiscountedValue(p, 100));
+        System.out.println("Value Iteration, " + maxIterations + ", " + averageDiscountedValue(frozenPolicy((QProvider)planner), 100));
     
         valueFunctionVisualizer((ValueFunction)planner, p);
     }
@@ -178,7 +192,7 @@ public class TrafficLightsBehavior {
         Planner planner = new PolicyIteration(domain, gamma, hashingFactory, 0.001, maxEvaluationIterations, maxPolicyIterations);
         Policy p = planner.planFromState(initialState);
         PolicyUtils.rollout(p, initialState, domain.getModel()).write(outputPath + "pi");
-        System.out.println("Policy Iteration, " + maxIterations + ", " + averageDiscountedValue(p, 100));
+        System.out.println("Policy Iteration, " + maxIterations + ", " + averageDiscountedValue(frozenPolicy((QProvider)planner), 100));
 
         valueFunctionVisualizer((ValueFunction)planner, p);
     }    
@@ -187,15 +201,15 @@ public class TrafficLightsBehavior {
         double gamma = 0.99;
         double qinit = 0.0;
         double learningRate = 0.3;
-        QLearning agent = new QLearning(domain, gamma, hashingFactory, qinit, learningRate);
-
-        //run learning for 200 episodes
-        for(int i = 0; i < maxIterations; i++){
-            Episode e = agent.runLearningEpisode(env);
-            if ((i+1) == maxIterations) { // save only the last one
-                e.write(outputPath + "ql_" + i);
-            }
-            env.resetEnvironment();
+        StreamingQLearning agent = new StreamingQLearning(domain, gamma, hashingFactory, qinit, learningRate);
+        //agent.setExperienceReplay(10000, 4); //replay 4 stored transitions per environment step
+
+        //run learning without recording episodes, except the last one which we save
+        LearningStream stream = new LearningStream();
+        stream.setRecordLast(1);
+        List<Episode> recorded = stream.run(agent, env, maxIterations);
+        if (!recorded.isEmpty()) {
+            recorded.get(0).write(outputPath + "ql_" + (maxIterations - 1));
         }
 
         Policy p = agent.planFromState(initialState);
@@ -330,6 +344,7 @@ mvn exec:java -Dexec.mainClass="edu.brown.cs.burlap.tutorials.TrafficLightsBehav
             yellowToRedTransitionProb,
             redToGreenTransitionProb);
         String outputPath = "output/"; //directory to record results
+        //example.useTransitionCache(100000);
         
         if (deterministic == true) { // Algorithms that only work determinstically
             example.BFSExample(outputPath);
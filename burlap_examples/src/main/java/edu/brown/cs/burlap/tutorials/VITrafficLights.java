@@ -25,6 +25,8 @@ import burlap.statehashing.simple.SimpleHashableStateFactory;
 import burlap.visualizer.Visualizer;
 
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 /**
  *  Value iteration on the TrafficLightGridWorld
@@ -35,6 +37,9 @@ public class VITrafficLights extends MDPSolver implements Planner, QProvider {
 	protected ValueFunction vinit;
 	protected int numIterations;
 
+	//number of fork-join workers used for sweeps; 1 sweeps in place on the calling thread
+	protected int numThreads = 1;
+
 
 	public VITrafficLights(SADomain domain, double gamma,
 					  HashableStateFactory hashingFactory, ValueFunction vinit, int numIterations){
@@ -44,6 +49,19 @@ public class VITrafficLights extends MDPSolver implements Planner, QProvider {
 		this.valueFunction = new HashMap<HashableState, Double>();
 	}
 
+	/**
+	 * Sets the number of threads used for sweeps. With one thread (the default) each sweep updates the
+	 * values in place (Gauss-Seidel). With more, sweeps are synchronous (Jacobi) sweeps over a double
+	 * buffered value array: their result is the same for every thread count above one, but after a fixed
+	 * number of iterations it differs slightly from the in-place result.
+	 */
+	public void setNumThreads(int numThreads) {
+		if(numThreads < 1){
+			throw new IllegalArgumentException("Number of threads must be at least 1; was " + numThreads);
+		}
+		this.numThreads = numThreads;
+	}
+
 	@Override
 	public double value(State s) {
 		Double d = this.valueFunction.get(hashingFactory.hashState(s));
@@ -70,6 +88,18 @@ public class VITrafficLights extends MDPSolver implements Planner, QProvider {
 			return 0.;
 		}
 
+		//a transition cache with our hashing factory already has the hashed outcome states
+		if(this.model instanceof CachedFullModel
+				&& ((CachedFullModel)this.model).getHashingFactory() == this.hashingFactory){
+			CachedFullModel.Outcomes outcomes = ((CachedFullModel)this.model).outcomes(this.hashingFactory.hashState(s), a);
+			double q = 0.;
+			for(int i = 0; i < outcomes.hashedSuccessors.length; i++){
+				TransitionProb tp = outcomes.transitions.get(i);
+				q += tp.p * (tp.eo.r + this.gamma * this.valueFunction.get(outcomes.hashedSuccessors[i]));
+			}
+			return q;
+		}
+
 		//what are the possible outcomes?
 		List<TransitionProb> tps = ((FullModel)this.model).transitions(s, a);
 
@@ -98,6 +128,11 @@ public class VITrafficLights extends MDPSolver implements Planner, QProvider {
 			return new GreedyQPolicy(this); //already performed planning here!
 		}
 
+		if(this.numThreads > 1){
+			this.parallelPlanFromState(initialState);
+			return new GreedyQPolicy(this);
+		}
+
 		//if the state is new, then find all reachable states from it first
 		this.performReachabilityFrom(initialState);
 
@@ -114,11 +149,74 @@ public class VITrafficLights extends MDPSolver implements Planner, QProvider {
 
 	}
 
+	/**
+	 * Freezes the greedy policy over all planned states into a table, so that querying it
+	 * no longer requires a Bellman backup for each action.
+	 */
+	public GreedyPolicyTable frozenPolicy() {
+		return GreedyPolicyTable.fromHashedStates(this, this.valueFunction.keySet(), this.hashingFactory);
+	}
+
+	/**
+	 * Saves the value function to a binary checkpoint, encoding states with the given codec.
+	 */
+	public void saveValueFunction(String path, IntStateCodec codec){
+		TableCheckpoint.writeValueFunction(path, codec, this.valueFunction);
+	}
+
+	/**
+	 * Loads a value function saved with {@link #saveValueFunction(String, IntStateCodec)}, replacing the
+	 * values of states already stored. The checkpoint does not record the domain it was planned for, so it
+	 * must come from a run on the same domain. Planning from a state it covers returns without sweeping;
+	 * planning from any other state sweeps all states reachable from it, starting from the loaded values.
+	 */
+	public void loadValueFunction(String path, IntStateCodec codec){
+		TableCheckpoint.readValueFunction(path, codec, this.hashingFactory, this.valueFunction);
+	}
+
 	@Override
 	public void resetSolver() {
 		this.valueFunction.clear();
 	}
 
+	/**
+	 * Compiles the states reachable from the seed state and runs numIterations synchronous sweeps,
+	 * partitioned across a fork-join pool of numThreads workers. Each sweep reads only the previous
+	 * sweep's values, so neither the partitioning nor the number of workers affects the result.
+	 */
+	protected void parallelPlanFromState(State initialState){
+
+		DenseMDP mdp = new DenseMDP((FullModel)this.model, this.actionTypes, this.hashingFactory, initialState);
+		int n = mdp.numStates();
+
+		//start from any values we already have
+		double [] cur = new double[n];
+		double [] next = new double[n];
+		for(int i = 0; i < n; i++){
+			Double d = this.valueFunction.get(mdp.hashedState(i));
+			cur[i] = d != null ? d : this.vinit.value(mdp.state(i));
+		}
+
+		int grain = Math.max(256, n / (this.numThreads * 4));
+		ForkJoinPool pool = new ForkJoinPool(this.numThreads);
+		try{
+			for(int i = 0; i < this.numIterations; i++){
+				pool.invoke(new JacobiSweep(mdp, cur, next, this.gamma, 0, n, grain));
+				double [] tmp = cur;
+				cur = next;
+				next = tmp;
+			}
+		}
+		finally{
+			pool.shutdown();
+		}
+
+		for(int i = 0; i < n; i++){
+			this.valueFunction.put(mdp.hashedState(i), cur[i]);
+		}
+
+	}
+
 	public void performReachabilityFrom(State seedState){
 
 		Set<HashableState> hashedStates = StateReachability.getReachableHashedStates(seedState, this.domain, this.hashingFactory);
@@ -132,6 +230,46 @@ public class VITrafficLights extends MDPSolver implements Planner, QProvider {
 
 	}
 
+	/**
+	 * Writes the Bellman backup of every state in [start, end) of the source values into the
+	 * destination values, splitting the range in half until it is at most grain states.
+	 */
+	protected static class JacobiSweep extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+
+		DenseMDP mdp;
+		double [] src;
+		double [] dest;
+		double gamma;
+		int start;
+		int end;
+		int grain;
+
+		public JacobiSweep(DenseMDP mdp, double [] src, double [] dest, double gamma, int start, int end, int grain) {
+			this.mdp = mdp;
+			this.src = src;
+			this.dest = dest;
+			this.gamma = gamma;
+			this.start = start;
+			this.end = end;
+			this.grain = grain;
+		}
+
+		@Override
+		protected void compute() {
+			if(this.end - this.start <= this.grain){
+				for(int s = this.start; s < this.end; s++){
+					this.dest[s] = this.mdp.maxQ(s, this.src, this.gamma);
+				}
+				return;
+			}
+			int mid = (this.start + this.end) >>> 1;
+			invokeAll(new JacobiSweep(this.mdp, this.src, this.dest, this.gamma, this.start, mid, this.grain),
+					new JacobiSweep(this.mdp, this.src, this.dest, this.gamma, mid, this.end, this.grain));
+		}
+	}
+
 	// Build with `mvn package`
 	// Run with `mvn exec:java -Dexec.mainClass="edu.brown.cs.burlap.tutorials.VITrafficLights" -e`
 	public static void main(String [] args){
@@ -158,6 +296,12 @@ public class VITrafficLights extends MDPSolver implements Planner, QProvider {
 		gen.setGoalLocation(10);
 		gen.setLightLocation(6);
 
+		//uncomment to have the model return shared pooled states instead of a new copy per transition
+		//gen.setInternStates(true);
+
+		//uncomment to compile the dynamics into outcome tables when the domain is generated
+		//gen.setCompileTransitions(true);
+
 		// Generate the domain after all the settings are done
 		SADomain domain = gen.generateDomain();
 
@@ -172,9 +316,23 @@ public class VITrafficLights extends MDPSolver implements Planner, QProvider {
 		VITrafficLights vi = new VITrafficLights(domain, 0.99, new SimpleHashableStateFactory(),
 				new ConstantValueFunction(0.0), 30);
 
+		//uncomment to hash states by their packed codes instead
+		//vi = new VITrafficLights(domain, 0.99, new PackedHashableStateFactory(gen.packedCodec()),
+		//		new ConstantValueFunction(0.0), 30);
+
+		//uncomment to spread the sweeps over all cores
+		//vi.setNumThreads(Runtime.getRuntime().availableProcessors());
+
+		//uncomment to restore a value function saved by a previous run of this same domain; planning
+		//from the initial state is then skipped because it is already covered
+		//vi.loadValueFunction("vi_traffic_lights.bin", new IntStateCodec(new TrafficLightGridState()));
+
 		//run planning from our initial state
 		Policy p = vi.planFromState(initialState);
 
+		//uncomment to save the value function; loadValueFunction restores it in a later run
+		//vi.saveValueFunction("vi_traffic_lights.bin", new IntStateCodec(new TrafficLightGridState()));
+
 		// Evaluate the policy with 10 rollouts to visualize
 		List<Episode> episodes = new ArrayList<Episode>(10);
 		for (int i = 0; i < 10; i++) {
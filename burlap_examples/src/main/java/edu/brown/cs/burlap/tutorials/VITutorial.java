@@ -6,7 +6,6 @@ import burlap.behavior.policy.PolicyUtils;
 import burlap.behavior.singleagent.Episode;
 import burlap.behavior.singleagent.MDPSolver;
 import burlap.behavior.singleagent.auxiliary.EpisodeSequenceVisualizer;
-import burlap.behavior.singleagent.auxiliary.StateReachability;
 import burlap.behavior.singleagent.planning.Planner;
 import burlap.behavior.valuefunction.ConstantValueFunction;
 import burlap.behavior.valuefunction.QProvider;
@@ -38,6 +37,12 @@ public class VITutorial extends MDPSolver implements Planner, QProvider {
 	protected ValueFunction vinit;
 	protected int numIterations;
 
+	//stop once the largest value change of a sweep is below this; 0 always runs numIterations sweeps
+	protected double maxDelta = 0.;
+	//stop once planning has taken this many milliseconds; -1 for no limit
+	protected long maxPlanningTime = -1;
+	protected List<SweepRecord> sweepRecords = new ArrayList<SweepRecord>();
+
 
 	public VITutorial(SADomain domain, double gamma,
 					  HashableStateFactory hashingFactory, ValueFunction vinit, int numIterations){
@@ -47,6 +52,28 @@ public class VITutorial extends MDPSolver implements Planner, QProvider {
 		this.valueFunction = new HashMap<HashableState, Double>();
 	}
 
+	public VITutorial(SADomain domain, double gamma,
+					  HashableStateFactory hashingFactory, ValueFunction vinit, double maxDelta, int numIterations){
+		this(domain, gamma, hashingFactory, vinit, numIterations);
+		this.maxDelta = maxDelta;
+	}
+
+	public void setMaxDelta(double maxDelta) {
+		this.maxDelta = maxDelta;
+	}
+
+	public void setMaxPlanningTime(long maxPlanningTime) {
+		this.maxPlanningTime = maxPlanningTime;
+	}
+
+	/**
+	 * Returns one record per sweep of the last planning call, in sweep order; empty if that call
+	 * returned without sweeping because its state was already planned.
+	 */
+	public List<SweepRecord> getSweepRecords() {
+		return this.sweepRecords;
+	}
+
 	@Override
 	public double value(State s) {
 		Double d = this.valueFunction.get(hashingFactory.hashState(s));
@@ -73,6 +100,18 @@ public class VITutorial extends MDPSolver implements Planner, QProvider {
 			return 0.;
 		}
 
+		//a transition cache with our hashing factory already has the hashed outcome states
+		if(this.model instanceof CachedFullModel
+				&& ((CachedFullModel)this.model).getHashingFactory() == this.hashingFactory){
+			CachedFullModel.Outcomes outcomes = ((CachedFullModel)this.model).outcomes(this.hashingFactory.hashState(s), a);
+			double q = 0.;
+			for(int i = 0; i < outcomes.hashedSuccessors.length; i++){
+				TransitionProb tp = outcomes.transitions.get(i);
+				q += tp.p * (tp.eo.r + this.gamma * this.valueFunction.get(outcomes.hashedSuccessors[i]));
+			}
+			return q;
+		}
+
 		//what are the possible outcomes?
 		List<TransitionProb> tps = ((FullModel)this.model).transitions(s, a);
 
@@ -96,20 +135,39 @@ public class VITutorial extends MDPSolver implements Planner, QProvider {
 	@Override
 	public GreedyQPolicy planFromState(State initialState) {
 
+		this.sweepRecords.clear();
 		HashableState hashedInitialState = this.hashingFactory.hashState(initialState);
 		if(this.valueFunction.containsKey(hashedInitialState)){
 			return new GreedyQPolicy(this); //already performed planning here!
 		}
 
-		//if the state is new, then find all reachable states from it first
-		this.performReachabilityFrom(initialState);
+		//if the state is new, then find all newly reachable states from it first
+		List<HashableState> newStates = this.performReachabilityFrom(initialState);
 
-		//now perform multiple iterations over the whole state space
+		//now perform multiple iterations over the new part of the state space
+		long planStart = System.nanoTime();
 		for(int i = 0; i < this.numIterations; i++){
+			long sweepStart = System.nanoTime();
+			double delta = 0.;
+			int numChanged = 0;
 			//iterate over each state
-			for(HashableState sh : this.valueFunction.keySet()){
+			for(HashableState sh : newStates){
 				//update its value using the bellman equation
-				this.valueFunction.put(sh, QProvider.Helper.maxQ(this, sh.s()));
+				double v = QProvider.Helper.maxQ(this, sh.s());
+				double change = Math.abs(v - this.valueFunction.put(sh, v));
+				if(change > 0.){
+					numChanged++;
+					delta = Math.max(delta, change);
+				}
+			}
+			long sweepEnd = System.nanoTime();
+			this.sweepRecords.add(new SweepRecord(i, delta, numChanged, sweepEnd - sweepStart));
+
+			if(delta < this.maxDelta){
+				break; //converged
+			}
+			if(this.maxPlanningTime != -1 && (sweepEnd - planStart) / 1000000 >= this.maxPlanningTime){
+				break; //out of time
 			}
 		}
 
@@ -117,22 +175,71 @@ public class VITutorial extends MDPSolver implements Planner, QProvider {
 
 	}
 
+	/**
+	 * Freezes the greedy policy over all planned states into a table, so that querying it
+	 * no longer requires a Bellman backup for each action.
+	 */
+	public GreedyPolicyTable frozenPolicy() {
+		return GreedyPolicyTable.fromHashedStates(this, this.valueFunction.keySet(), this.hashingFactory);
+	}
+
+	/**
+	 * Saves the value function to a binary checkpoint, encoding states with the given codec.
+	 */
+	public void saveValueFunction(String path, IntStateCodec codec){
+		TableCheckpoint.writeValueFunction(path, codec, this.valueFunction);
+	}
+
+	/**
+	 * Loads a value function saved with {@link #saveValueFunction(String, IntStateCodec)}, replacing the
+	 * values of states already stored.
+	 */
+	public void loadValueFunction(String path, IntStateCodec codec){
+		TableCheckpoint.readValueFunction(path, codec, this.hashingFactory, this.valueFunction);
+	}
+
 	@Override
 	public void resetSolver() {
 		this.valueFunction.clear();
 	}
 
-	public void performReachabilityFrom(State seedState){
-
-		Set<HashableState> hashedStates = StateReachability.getReachableHashedStates(seedState, this.domain, this.hashingFactory);
+	/**
+	 * Adds every state reachable from the seed state that is not yet in the value function, initialized
+	 * with vinit, and returns the added states. Each earlier call added everything reachable from its seed,
+	 * so the stored states are closed under transitions: the search never needs to expand a stored state,
+	 * and no stored state can transition into the added ones. Their values are therefore a valid warm
+	 * start and only the added states need to be swept.
+	 */
+	public List<HashableState> performReachabilityFrom(State seedState){
+
+		List<HashableState> added = new ArrayList<HashableState>();
+		HashableState hashedSeed = this.hashingFactory.hashState(seedState);
+		if(this.valueFunction.containsKey(hashedSeed)){
+			return added;
+		}
 
-		//initialize the value function for all states
-		for(HashableState hs : hashedStates){
-			if(!this.valueFunction.containsKey(hs)){
-				this.valueFunction.put(hs, this.vinit.value(hs.s()));
+		this.valueFunction.put(hashedSeed, this.vinit.value(seedState));
+		LinkedList<HashableState> openList = new LinkedList<HashableState>();
+		openList.add(hashedSeed);
+		while(!openList.isEmpty()){
+			HashableState sh = openList.poll();
+			added.add(sh);
+			if(this.model.terminal(sh.s())){
+				continue;
+			}
+			for(Action a : this.applicableActions(sh.s())){
+				for(TransitionProb tp : ((FullModel)this.model).transitions(sh.s(), a)){
+					HashableState nsh = this.hashingFactory.hashState(tp.eo.op);
+					if(!this.valueFunction.containsKey(nsh)){
+						this.valueFunction.put(nsh, this.vinit.value(nsh.s()));
+						openList.add(nsh);
+					}
+				}
 			}
 		}
 
+		return added;
+
 	}
 
 
@@ -152,13 +259,20 @@ public class VITutorial extends MDPSolver implements Planner, QProvider {
 
 		//setup vi with 0.99 discount factor, a value
 		//function initialization that initializes all states to value 0, and which will
-		//run for 30 iterations over the state space
+		//run for at most 30 iterations over the state space, stopping early once no value changes by 0.001
 		VITutorial vi = new VITutorial(domain, 0.99, new SimpleHashableStateFactory(),
-				new ConstantValueFunction(0.0), 30);
+				new ConstantValueFunction(0.0), 0.001, 30);
 
 		//run planning from our initial state
 		Policy p = vi.planFromState(s);
 
+		//uncomment to save the value function; loadValueFunction restores it in a later run
+		//vi.saveValueFunction("vi_tutorial.bin", new IntStateCodec((MutableState)s));
+		List<SweepRecord> sweeps = vi.getSweepRecords();
+		if(!sweeps.isEmpty()){
+			System.out.println("Performed " + sweeps.size() + " sweeps; last: " + sweeps.get(sweeps.size()-1));
+		}
+
 		//evaluate the policy with one roll out visualize the trajectory
 		Episode ea = PolicyUtils.rollout(p, s, domain.getModel());
 
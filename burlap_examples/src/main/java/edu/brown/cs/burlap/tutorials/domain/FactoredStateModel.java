@@ -0,0 +1,35 @@
+package edu.brown.cs.burlap.tutorials.domain;
+
+import burlap.mdp.core.action.Action;
+import burlap.mdp.core.state.State;
+import burlap.mdp.singleagent.model.statemodel.FullStateModel;
+
+import java.util.List;
+
+/**
+ * A state model whose next state is made of int variables (factors) that change independently of one
+ * another given the current state and action. The joint outcome distribution returned by
+ * {@link #stateTransitions(State, Action)} is the product of the per-factor distributions and can be
+ * exponential in the number of factors; planners that understand the factorization can work with the
+ * per-factor distributions instead, whose total size is linear in the number of factors.
+ */
+public interface FactoredStateModel extends FullStateModel {
+
+	/**
+	 * Returns the variable keys of the factors, in factor order.
+	 */
+	List<Object> factorKeys();
+
+	/**
+	 * Returns the largest number of outcomes any factor can have, which is the array size
+	 * {@link #factorOutcomes(State, Action, int, int[], double[])} needs.
+	 */
+	int maxFactorOutcomes();
+
+	/**
+	 * Writes the distribution of the next value of a factor into values and probs, and returns the number
+	 * of outcomes written. Outcomes with probability zero are left out.
+	 */
+	int factorOutcomes(State s, Action a, int factor, int [] values, double [] probs);
+
+}
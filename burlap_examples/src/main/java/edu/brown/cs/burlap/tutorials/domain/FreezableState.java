@@ -0,0 +1,16 @@
+package edu.brown.cs.burlap.tutorials.domain;
+
+import burlap.mdp.core.state.MutableState;
+
+/**
+ * A mutable state that can be made read-only, so that one instance can be shared safely. Setting a
+ * variable of a frozen state throws an {@link IllegalStateException}; {@link #copy()} still returns a
+ * mutable state, so code that needs a modified state copies it first.
+ */
+public interface FreezableState extends MutableState {
+
+	void freeze();
+
+	boolean isFrozen();
+
+}
@@ -0,0 +1,33 @@
+package edu.brown.cs.burlap.tutorials.domain;
+
+import burlap.mdp.core.state.State;
+
+/**
+ * A state whose variables are ints and can be read without boxing them.
+ */
+public interface IntState extends State {
+
+	/**
+	 * Returns the value of an int variable.
+	 * @throws burlap.mdp.core.state.UnknownKeyException if the state has no such variable
+	 */
+	int getInt(Object variableKey);
+
+
+	class Helper {
+
+		private Helper() {
+		}
+
+		/**
+		 * Returns the int value of a variable of s, without boxing if s is an {@link IntState}.
+		 */
+		public static int getInt(State s, Object variableKey){
+			if(s instanceof IntState){
+				return ((IntState)s).getInt(variableKey);
+			}
+			return ((Number)s.get(variableKey)).intValue();
+		}
+	}
+
+}
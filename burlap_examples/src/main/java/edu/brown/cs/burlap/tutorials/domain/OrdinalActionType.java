@@ -0,0 +1,76 @@
+package edu.brown.cs.burlap.tutorials.domain;
+
+import burlap.mdp.core.action.Action;
+import burlap.mdp.core.action.SimpleAction;
+import burlap.mdp.core.action.UniversalActionType;
+
+/**
+ * A {@link UniversalActionType} whose single action carries a precomputed integer ordinal, so that
+ * models and reward functions can switch on the ordinal instead of comparing action names. Models still
+ * accept actions created by name through {@link #ordinal(Action, String[])}, but tables keyed by action
+ * should be given the domain's actions.
+ */
+public class OrdinalActionType extends UniversalActionType {
+
+	public OrdinalActionType(String typeName, int ordinal) {
+		super(typeName, new OrdinalAction(typeName, ordinal));
+	}
+
+	public int ordinal() {
+		return ((OrdinalAction)this.action).getOrdinal();
+	}
+
+	/**
+	 * Returns the ordinal of a; for an action that does not carry one, the index of its name in names,
+	 * or -1 if its name is not there.
+	 */
+	public static int ordinal(Action a, String [] names){
+		if(a instanceof OrdinalAction){
+			return ((OrdinalAction)a).getOrdinal();
+		}
+		String name = a.actionName();
+		for(int i = 0; i < names.length; i++){
+			if(names[i].equals(name)){
+				return i;
+			}
+		}
+		return -1;
+	}
+
+
+	/**
+	 * A {@link SimpleAction} with an ordinal. Like any {@link SimpleAction} it is only equal to actions of
+	 * its own class, so a plain {@link SimpleAction} with the same name is <b>not</b> equal to it: actions
+	 * compared with it or used as keys alongside it should come from the domain's action types (as
+	 * {@link burlap.shell.visual.VisualExplorer#addKeyAction(String, String, String)} and the policies do)
+	 * rather than be created by name. Episodes written with it keep the ordinal and read back as
+	 * {@link OrdinalAction}s; episodes written before it existed read back as plain {@link SimpleAction}s,
+	 * which the models still accept but which do not match the domain's actions in tables.
+	 */
+	public static class OrdinalAction extends SimpleAction {
+
+		protected int ordinal;
+
+		public OrdinalAction() {
+		}
+
+		public OrdinalAction(String name, int ordinal) {
+			super(name);
+			this.ordinal = ordinal;
+		}
+
+		public int getOrdinal() {
+			return ordinal;
+		}
+
+		public void setOrdinal(int ordinal) {
+			this.ordinal = ordinal;
+		}
+
+		@Override
+		public Action copy() {
+			return new OrdinalAction(this.name, this.ordinal);
+		}
+	}
+
+}
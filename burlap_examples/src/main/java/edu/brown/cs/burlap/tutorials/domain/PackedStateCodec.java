@@ -0,0 +1,103 @@
+package edu.brown.cs.burlap.tutorials.domain;
+
+import burlap.mdp.core.state.MutableState;
+import burlap.mdp.core.state.State;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Packs states with a few small non-negative int variables into a single long. Each variable is given
+ * a declared number of bits, and variable i occupies the bits above those of variables 0..i-1, so two
+ * states with the same variable keys have the same code exactly when all their variables are equal.
+ * Decoding copies a template state and sets each variable.
+ */
+public class PackedStateCodec {
+
+	protected MutableState template;
+	protected Object [] keys;
+	protected int [] shifts;
+	protected long [] masks;
+	protected int totalBits;
+
+
+	/**
+	 * @param template a state with the variables to pack; decoded states are copies of it
+	 * @param keys the variable keys to pack
+	 * @param bits the number of bits of each variable
+	 */
+	public PackedStateCodec(MutableState template, Object [] keys, int [] bits) {
+		if(keys.length != bits.length){
+			throw new IllegalArgumentException("Got " + keys.length + " keys but " + bits.length + " bit widths");
+		}
+		this.template = template;
+		this.keys = keys.clone();
+		this.shifts = new int[keys.length];
+		this.masks = new long[keys.length];
+		for(int i = 0; i < keys.length; i++){
+			if(bits[i] < 1){
+				throw new IllegalArgumentException("Variable " + keys[i] + " needs at least one bit");
+			}
+			this.shifts[i] = this.totalBits;
+			this.masks[i] = (1L << bits[i]) - 1;
+			this.totalBits += bits[i];
+		}
+		if(this.totalBits > 63){
+			throw new IllegalArgumentException("Packed states need " + this.totalBits + " bits; at most 63 fit in a long");
+		}
+	}
+
+	/**
+	 * Returns the number of bits needed to store the values 0..maxValue.
+	 */
+	public static int bitsFor(int maxValue){
+		return Math.max(1, 32 - Integer.numberOfLeadingZeros(maxValue));
+	}
+
+	public int totalBits() {
+		return this.totalBits;
+	}
+
+	/**
+	 * Returns true if every code is a non-negative int.
+	 */
+	public boolean fitsInt() {
+		return this.totalBits <= 31;
+	}
+
+	public List<Object> getKeys() {
+		return Arrays.asList(this.keys);
+	}
+
+	public long encode(State s){
+		long code = 0;
+		for(int i = 0; i < this.keys.length; i++){
+			code = this.with(code, i, IntState.Helper.getInt(s, this.keys[i]));
+		}
+		return code;
+	}
+
+	public int value(long code, int i){
+		return (int)((code >>> this.shifts[i]) & this.masks[i]);
+	}
+
+	/**
+	 * Returns code with variable i set to v.
+	 */
+	public long with(long code, int i, int v){
+		if(v < 0 || v > this.masks[i]){
+			throw new IllegalArgumentException("Value " + v + " of " + this.keys[i] + " does not fit in "
+					+ Long.bitCount(this.masks[i]) + " bits");
+		}
+		return (code & ~(this.masks[i] << this.shifts[i])) | ((long)v << this.shifts[i]);
+	}
+
+	public State decode(long code){
+		MutableState s = (MutableState)this.template.copy();
+		for(int i = 0; i < this.keys.length; i++){
+			s.set(this.keys[i], this.value(code, i));
+		}
+		return s;
+	}
+
+}
@@ -0,0 +1,89 @@
+package edu.brown.cs.burlap.tutorials.domain;
+
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A family of independent random number streams derived from one master seed. Stream i is always the
+ * same sequence for the same master seed, so a simulation that gives each worker (or each rollout) its
+ * own stream by index is reproducible for a given seed no matter how the work is scheduled.
+ * <p>
+ * Domain models draw from {@link #current()}, the stream bound to the calling thread. A worker binds
+ * its stream with {@link #bind(Random)} before simulating; threads that never bind one are given a
+ * fresh stream of their own on first use, so no two threads ever share, and contend on, a generator.
+ */
+public class RandomStreams {
+
+	protected static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+
+	protected long masterSeed;
+	protected ThreadLocal<Random> bound = new ThreadLocal<Random>();
+
+	//streams handed to threads that did not bind one; counted down from -1 so they never collide with stream(i >= 0)
+	protected AtomicLong nextUnboundIndex = new AtomicLong(-1);
+
+
+	public RandomStreams(long masterSeed) {
+		this.masterSeed = masterSeed;
+	}
+
+	public long getMasterSeed() {
+		return this.masterSeed;
+	}
+
+	/**
+	 * Returns a new generator for stream index. Calling this twice with the same index gives two generators
+	 * that produce the same sequence.
+	 */
+	public Random stream(long index){
+		return new Random(mix(this.masterSeed + (index + 1) * GOLDEN_GAMMA));
+	}
+
+	/**
+	 * Returns an independent family of streams derived from this one, for example to keep the streams of
+	 * learners separate from those of environments.
+	 */
+	public RandomStreams split(long index){
+		return new RandomStreams(mix(mix(this.masterSeed) + (index + 1) * GOLDEN_GAMMA));
+	}
+
+	/**
+	 * Makes rand the stream returned by {@link #current()} on the calling thread.
+	 */
+	public void bind(Random rand){
+		this.bound.set(rand);
+	}
+
+	public void unbind(){
+		this.bound.remove();
+	}
+
+	/**
+	 * Returns the stream bound to the calling thread, binding a new unshared stream if there is none.
+	 */
+	public Random current(){
+		Random rand = this.bound.get();
+		if(rand == null){
+			rand = this.stream(this.nextUnboundIndex.getAndDecrement());
+			this.bound.set(rand);
+		}
+		return rand;
+	}
+
+	/**
+	 * Returns the next uniform double in [0, 1) of the calling thread's stream.
+	 */
+	public double nextDouble(){
+		return this.current().nextDouble();
+	}
+
+	/**
+	 * The SplitMix64 finalizer; spreads nearby seeds to unrelated ones.
+	 */
+	protected static long mix(long z){
+		z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+		z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+		return z ^ (z >>> 31);
+	}
+
+}
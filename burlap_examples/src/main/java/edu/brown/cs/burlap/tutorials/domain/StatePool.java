@@ -0,0 +1,94 @@
+package edu.brown.cs.burlap.tutorials.domain;
+
+import burlap.mdp.core.state.State;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Interns states by their {@link PackedStateCodec} code, so a model can return one shared instance per
+ * distinct state instead of allocating a new state for every transition. Pooled states are frozen if
+ * they are {@link FreezableState}s, and two pooled states are equal exactly when they are the same object.
+ * <p>
+ * Codes of up to {@link #MAX_ARRAY_BITS} bits are looked up in an array indexed by code; larger codes in a
+ * concurrent map. The pool can be used from any number of threads.
+ */
+public class StatePool {
+
+	public static final int MAX_ARRAY_BITS = 20;
+
+	protected PackedStateCodec codec;
+	protected AtomicReferenceArray<State> byCode;
+	protected ConcurrentMap<Long, State> byLargeCode;
+	protected AtomicInteger size = new AtomicInteger();
+
+
+	public StatePool(PackedStateCodec codec) {
+		this.codec = codec;
+		if(codec.totalBits() <= MAX_ARRAY_BITS){
+			this.byCode = new AtomicReferenceArray<State>(1 << codec.totalBits());
+		}
+		else{
+			this.byLargeCode = new ConcurrentHashMap<Long, State>();
+		}
+	}
+
+	public PackedStateCodec getCodec() {
+		return this.codec;
+	}
+
+	/**
+	 * Returns the number of distinct states pooled so far.
+	 */
+	public int size() {
+		return this.size.get();
+	}
+
+	/**
+	 * Returns the pooled state with the given code, decoding and pooling it if it is new.
+	 */
+	public State get(long code){
+		if(this.byCode != null){
+			State s = this.byCode.get((int)code);
+			if(s == null){
+				s = this.newState(code);
+				if(this.byCode.compareAndSet((int)code, null, s)){
+					this.size.incrementAndGet();
+				}
+				else{
+					s = this.byCode.get((int)code);
+				}
+			}
+			return s;
+		}
+
+		State s = this.byLargeCode.get(code);
+		if(s == null){
+			State ns = this.newState(code);
+			s = this.byLargeCode.putIfAbsent(code, ns);
+			if(s == null){
+				this.size.incrementAndGet();
+				s = ns;
+			}
+		}
+		return s;
+	}
+
+	/**
+	 * Returns the pooled state equal to s.
+	 */
+	public State canonical(State s){
+		return this.get(this.codec.encode(s));
+	}
+
+	protected State newState(long code){
+		State s = this.codec.decode(code);
+		if(s instanceof FreezableState){
+			((FreezableState)s).freeze();
+		}
+		return s;
+	}
+
+}
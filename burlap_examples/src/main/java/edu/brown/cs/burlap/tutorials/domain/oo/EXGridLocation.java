@@ -44,6 +44,14 @@ public class EXGridLocation extends ExGridAgent{
 		return super.get(variableKey);
 	}
 
+	@Override
+	public int getInt(Object variableKey) {
+		if(variableKey.equals(VAR_TYPE)){
+			return this.type;
+		}
+		return super.getInt(variableKey);
+	}
+
 	@Override
 	public MutableState set(Object variableKey, Object value) {
 		if(variableKey.equals(VAR_TYPE)){
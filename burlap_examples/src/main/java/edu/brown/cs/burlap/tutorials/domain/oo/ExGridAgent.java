@@ -5,6 +5,7 @@ import burlap.mdp.core.state.MutableState;
 import burlap.mdp.core.state.StateUtilities;
 import burlap.mdp.core.state.UnknownKeyException;
 import burlap.mdp.core.state.annotations.DeepCopyState;
+import edu.brown.cs.burlap.tutorials.domain.IntState;
 
 import java.util.Arrays;
 import java.util.List;
@@ -18,7 +19,7 @@ import static edu.brown.cs.burlap.tutorials.domain.oo.ExampleOOGridWorld.VAR_Y;
  * @author James MacGlashan.
  */
 @DeepCopyState
-public class ExGridAgent implements ObjectInstance, MutableState {
+public class ExGridAgent implements ObjectInstance, MutableState, IntState {
 
 	public int x;
 	public int y;
@@ -86,6 +87,17 @@ public class ExGridAgent implements ObjectInstance, MutableState {
 		throw new UnknownKeyException(variableKey);
 	}
 
+	@Override
+	public int getInt(Object variableKey) {
+		if(variableKey.equals(VAR_X)){
+			return x;
+		}
+		else if(variableKey.equals(VAR_Y)){
+			return y;
+		}
+		throw new UnknownKeyException(variableKey);
+	}
+
 	@Override
 	public ExGridAgent copy() {
 		return new ExGridAgent(x, y, name);
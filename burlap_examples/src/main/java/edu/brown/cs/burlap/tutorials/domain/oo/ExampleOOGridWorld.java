@@ -5,7 +5,6 @@ import burlap.mdp.auxiliary.common.SinglePFTF;
 import burlap.mdp.core.StateTransitionProb;
 import burlap.mdp.core.TerminalFunction;
 import burlap.mdp.core.action.Action;
-import burlap.mdp.core.action.UniversalActionType;
 import burlap.mdp.core.oo.OODomain;
 import burlap.mdp.core.oo.propositional.PropositionalFunction;
 import burlap.mdp.core.oo.state.OOState;
@@ -20,6 +19,9 @@ import burlap.mdp.singleagent.model.statemodel.FullStateModel;
 import burlap.mdp.singleagent.oo.OOSADomain;
 import burlap.shell.visual.VisualExplorer;
 import burlap.visualizer.*;
+import edu.brown.cs.burlap.tutorials.domain.IntState;
+import edu.brown.cs.burlap.tutorials.domain.OrdinalActionType;
+import edu.brown.cs.burlap.tutorials.domain.RandomStreams;
 
 import java.awt.*;
 import java.awt.geom.Ellipse2D;
@@ -45,6 +47,9 @@ public class ExampleOOGridWorld implements DomainGenerator{
 	public static final String ACTION_EAST = "east";
 	public static final String ACTION_WEST = "west";
 
+	//action names indexed by their ordinals
+	public static final String [] ACTION_NAMES = new String[]{ACTION_NORTH, ACTION_SOUTH, ACTION_EAST, ACTION_WEST};
+
 	public static final String PF_AT = "at";
 
 
@@ -63,6 +68,13 @@ public class ExampleOOGridWorld implements DomainGenerator{
 			{0,0,0,0,1,0,0,0,0,0,0},
 	};
 
+	//source of randomness for sampled transitions
+	protected RandomStreams randomStreams = new RandomStreams(System.nanoTime());
+
+	public void setRandomStreams(RandomStreams randomStreams){
+		this.randomStreams = randomStreams;
+	}
+
 	public List<PropositionalFunction> generatePfs(){
 		return Arrays.<PropositionalFunction>asList(new AtLocation());
 	}
@@ -76,10 +88,10 @@ public class ExampleOOGridWorld implements DomainGenerator{
 				.addStateClass(CLASS_LOCATION, EXGridLocation.class);
 
 		domain.addActionTypes(
-				new UniversalActionType(ACTION_NORTH),
-				new UniversalActionType(ACTION_SOUTH),
-				new UniversalActionType(ACTION_EAST),
-				new UniversalActionType(ACTION_WEST));
+				new OrdinalActionType(ACTION_NORTH, 0),
+				new OrdinalActionType(ACTION_SOUTH, 1),
+				new OrdinalActionType(ACTION_EAST, 2),
+				new OrdinalActionType(ACTION_WEST, 3));
 
 
 		OODomain.Helper.addPfsToDomain(domain, this.generatePfs());
@@ -100,6 +112,9 @@ public class ExampleOOGridWorld implements DomainGenerator{
 
 		protected double [][] transitionProbs;
 
+		//random streams that sampled transitions draw from
+		protected RandomStreams randomStreams = ExampleOOGridWorld.this.randomStreams;
+
 		public OOGridWorldStateModel() {
 			this.transitionProbs = new double[4][4];
 			for(int i = 0; i < 4; i++){
@@ -167,7 +182,7 @@ public class ExampleOOGridWorld implements DomainGenerator{
 			int adir = actionDir(a);
 
 			//sample direction with random roll
-			double r = Math.random();
+			double r = this.randomStreams.nextDouble();
 			double sumProb = 0.;
 			int dir = 0;
 			for(int i = 0; i < 4; i++){
@@ -190,20 +205,8 @@ public class ExampleOOGridWorld implements DomainGenerator{
 		}
 
 		protected int actionDir(Action a){
-			int adir = -1;
-			if(a.actionName().equals(ACTION_NORTH)){
-				adir = 0;
-			}
-			else if(a.actionName().equals(ACTION_SOUTH)){
-				adir = 1;
-			}
-			else if(a.actionName().equals(ACTION_EAST)){
-				adir = 2;
-			}
-			else if(a.actionName().equals(ACTION_WEST)){
-				adir = 3;
-			}
-			return adir;
+			//action ordinals are the directions 0: north; 1: south; 2: east; 3: west
+			return OrdinalActionType.ordinal(a, ACTION_NAMES);
 		}
 
 
@@ -273,11 +276,11 @@ public class ExampleOOGridWorld implements DomainGenerator{
 			ObjectInstance agent = s.object(params[0]);
 			ObjectInstance location = s.object(params[1]);
 
-			int ax = (Integer)agent.get(VAR_X);
-			int ay = (Integer)agent.get(VAR_Y);
+			int ax = IntState.Helper.getInt(agent, VAR_X);
+			int ay = IntState.Helper.getInt(agent, VAR_Y);
 
-			int lx = (Integer)location.get(VAR_X);
-			int ly = (Integer)location.get(VAR_Y);
+			int lx = IntState.Helper.getInt(location, VAR_X);
+			int ly = IntState.Helper.getInt(location, VAR_Y);
 
 			return ax == lx && ay == ly;
 
@@ -352,8 +355,8 @@ public class ExampleOOGridWorld implements DomainGenerator{
 			float width = cWidth / fWidth;
 			float height = cHeight / fHeight;
 
-			int ax = (Integer)ob.get(VAR_X);
-			int ay = (Integer)ob.get(VAR_Y);
+			int ax = IntState.Helper.getInt(ob, VAR_X);
+			int ay = IntState.Helper.getInt(ob, VAR_Y);
 
 			//left coordinate of cell on our canvas
 			float rx = ax*width;
@@ -391,8 +394,8 @@ public class ExampleOOGridWorld implements DomainGenerator{
 			float width = cWidth / fWidth;
 			float height = cHeight / fHeight;
 
-			int ax = (Integer)ob.get(VAR_X);
-			int ay = (Integer)ob.get(VAR_Y);
+			int ax = IntState.Helper.getInt(ob, VAR_X);
+			int ay = IntState.Helper.getInt(ob, VAR_Y);
 
 			//left coordinate of cell on our canvas
 			float rx = ax*width;
@@ -4,6 +4,8 @@ import burlap.mdp.core.state.MutableState;
 import burlap.mdp.core.state.StateUtilities;
 import burlap.mdp.core.state.UnknownKeyException;
 import burlap.mdp.core.state.annotations.DeepCopyState;
+import edu.brown.cs.burlap.tutorials.domain.FreezableState;
+import edu.brown.cs.burlap.tutorials.domain.IntState;
 
 import java.util.Arrays;
 import java.util.List;
@@ -16,10 +18,15 @@ import static edu.brown.cs.burlap.tutorials.domain.simple.ExampleGridWorld.VAR_Y
  * @author James MacGlashan.
  */
 @DeepCopyState
-public class EXGridState implements MutableState{
+public class EXGridState implements FreezableState, IntState{
 
-	public int x;
-	public int y;
+	//not public because pooled states are shared and frozen: they are written through set or the bean
+	//setters, which reject frozen states (the bean accessors are also what episode files use)
+	protected int x;
+	protected int y;
+
+	//set when the state is shared, for example by a StatePool
+	protected boolean frozen;
 
 	private final static List<Object> keys = Arrays.<Object>asList(VAR_X, VAR_Y);
 
@@ -31,8 +38,33 @@ public class EXGridState implements MutableState{
 		this.y = y;
 	}
 
+	public int getX() {
+		return x;
+	}
+
+	public void setX(int x) {
+		this.checkNotFrozen();
+		this.x = x;
+	}
+
+	public int getY() {
+		return y;
+	}
+
+	public void setY(int y) {
+		this.checkNotFrozen();
+		this.y = y;
+	}
+
+	protected void checkNotFrozen() {
+		if(this.frozen){
+			throw new IllegalStateException("Cannot set a variable of a frozen state; set it on a copy()");
+		}
+	}
+
 	@Override
 	public MutableState set(Object variableKey, Object value) {
+		this.checkNotFrozen();
 		if(variableKey.equals(VAR_X)){
 			this.x = StateUtilities.stringOrNumber(value).intValue();
 		}
@@ -60,6 +92,27 @@ public class EXGridState implements MutableState{
 		throw new UnknownKeyException(variableKey);
 	}
 
+	@Override
+	public int getInt(Object variableKey) {
+		if(variableKey.equals(VAR_X)){
+			return x;
+		}
+		else if(variableKey.equals(VAR_Y)){
+			return y;
+		}
+		throw new UnknownKeyException(variableKey);
+	}
+
+	@Override
+	public void freeze() {
+		this.frozen = true;
+	}
+
+	@Override
+	public boolean isFrozen() {
+		return this.frozen;
+	}
+
 	@Override
 	public EXGridState copy() {
 		return new EXGridState(x, y);
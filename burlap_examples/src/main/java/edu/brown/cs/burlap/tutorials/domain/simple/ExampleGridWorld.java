@@ -5,7 +5,6 @@ import burlap.mdp.auxiliary.DomainGenerator;
 import burlap.mdp.core.StateTransitionProb;
 import burlap.mdp.core.TerminalFunction;
 import burlap.mdp.core.action.Action;
-import burlap.mdp.core.action.UniversalActionType;
 import burlap.mdp.core.state.State;
 import burlap.mdp.singleagent.SADomain;
 import burlap.mdp.singleagent.environment.SimulatedEnvironment;
@@ -16,6 +15,11 @@ import burlap.shell.visual.VisualExplorer;
 import burlap.visualizer.StatePainter;
 import burlap.visualizer.StateRenderLayer;
 import burlap.visualizer.Visualizer;
+import edu.brown.cs.burlap.tutorials.domain.IntState;
+import edu.brown.cs.burlap.tutorials.domain.OrdinalActionType;
+import edu.brown.cs.burlap.tutorials.domain.PackedStateCodec;
+import edu.brown.cs.burlap.tutorials.domain.RandomStreams;
+import edu.brown.cs.burlap.tutorials.domain.StatePool;
 
 import java.awt.*;
 import java.awt.geom.Ellipse2D;
@@ -38,6 +42,9 @@ public class ExampleGridWorld implements DomainGenerator {
 	public static final String ACTION_EAST = "east";
 	public static final String ACTION_WEST = "west";
 
+	//action names indexed by their ordinals
+	public static final String [] ACTION_NAMES = new String[]{ACTION_NORTH, ACTION_SOUTH, ACTION_EAST, ACTION_WEST};
+
 
 	protected int goalx = 10;
 	protected int goaly = 10;
@@ -57,11 +64,38 @@ public class ExampleGridWorld implements DomainGenerator {
 			{0,0,0,0,1,0,0,0,0,0,0},
 	};
 
+	//source of randomness for sampled transitions
+	protected RandomStreams randomStreams = new RandomStreams(System.nanoTime());
+
+	//whether models return pooled states
+	protected boolean internStates = false;
+
 	public void setGoalLocation(int goalx, int goaly){
 		this.goalx = goalx;
 		this.goaly = goaly;
 	}
 
+	public void setRandomStreams(RandomStreams randomStreams){
+		this.randomStreams = randomStreams;
+	}
+
+	/**
+	 * Makes models of domains generated afterwards return shared, frozen states from a {@link StatePool}
+	 * instead of new copies. Code that needs to modify a state they return must copy it first.
+	 */
+	public void setInternStates(boolean internStates){
+		this.internStates = internStates;
+	}
+
+	/**
+	 * Returns a codec that packs the states of this grid into ints, with just enough bits for its width and height.
+	 */
+	public PackedStateCodec packedCodec(){
+		return new PackedStateCodec(new EXGridState(),
+				new Object[]{VAR_X, VAR_Y},
+				new int[]{PackedStateCodec.bitsFor(this.map.length - 1), PackedStateCodec.bitsFor(this.map[0].length - 1)});
+	}
+
 
 	@Override
 	public SADomain generateDomain() {
@@ -70,10 +104,10 @@ public class ExampleGridWorld implements DomainGenerator {
 
 
 		domain.addActionTypes(
-				new UniversalActionType(ACTION_NORTH),
-				new UniversalActionType(ACTION_SOUTH),
-				new UniversalActionType(ACTION_EAST),
-				new UniversalActionType(ACTION_WEST));
+				new OrdinalActionType(ACTION_NORTH, 0),
+				new OrdinalActionType(ACTION_SOUTH, 1),
+				new OrdinalActionType(ACTION_EAST, 2),
+				new OrdinalActionType(ACTION_WEST, 3));
 
 		GridWorldStateModel smodel = new GridWorldStateModel();
 		RewardFunction rf = new ExampleRF(this.goalx, this.goaly);
@@ -105,6 +139,12 @@ public class ExampleGridWorld implements DomainGenerator {
 
 		protected double [][] transitionProbs;
 
+		//random streams that sampled transitions draw from
+		protected RandomStreams randomStreams = ExampleGridWorld.this.randomStreams;
+
+		//pool of the states this model returns, or null to return new copies
+		protected StatePool statePool = ExampleGridWorld.this.internStates ? new StatePool(ExampleGridWorld.this.packedCodec()) : null;
+
 		public GridWorldStateModel() {
 			this.transitionProbs = new double[4][4];
 			for(int i = 0; i < 4; i++){
@@ -133,9 +173,7 @@ public class ExampleGridWorld implements DomainGenerator {
 				int [] newPos = this.moveResult(curX, curY, i);
 				if(newPos[0] != curX || newPos[1] != curY){
 					//new possible outcome
-					EXGridState ns = gs.copy();
-					ns.x = newPos[0];
-					ns.y = newPos[1];
+					EXGridState ns = this.resultState(gs, newPos[0], newPos[1]);
 
 					//create transition probability object and add to our list of outcomes
 					tps.add(new StateTransitionProb(ns, this.transitionProbs[adir][i]));
@@ -149,7 +187,7 @@ public class ExampleGridWorld implements DomainGenerator {
 					}
 					else{
 						//otherwise create this new state and transition
-						noChange = new StateTransitionProb(s.copy(), this.transitionProbs[adir][i]);
+						noChange = new StateTransitionProb(this.resultState(gs, curX, curY), this.transitionProbs[adir][i]);
 						tps.add(noChange);
 					}
 				}
@@ -163,7 +201,6 @@ public class ExampleGridWorld implements DomainGenerator {
 		@Override
 		public State sample(State s, Action a) {
 
-			s = s.copy();
 			EXGridState gs = (EXGridState)s;
 			int curX = gs.x;
 			int curY = gs.y;
@@ -171,7 +208,7 @@ public class ExampleGridWorld implements DomainGenerator {
 			int adir = actionDir(a);
 
 			//sample direction with random roll
-			double r = Math.random();
+			double r = this.randomStreams.nextDouble();
 			double sumProb = 0.;
 			int dir = 0;
 			for(int i = 0; i < 4; i++){
@@ -185,29 +222,27 @@ public class ExampleGridWorld implements DomainGenerator {
 			//get resulting position
 			int [] newPos = this.moveResult(curX, curY, dir);
 
-			//set the new position
-			gs.x = newPos[0];
-			gs.y = newPos[1];
+			//return the state at the new position
+			return this.resultState(gs, newPos[0], newPos[1]);
+		}
 
-			//return the state we just modified
-			return gs;
+		/**
+		 * Returns the state at position (x, y): the pooled state if states are interned, otherwise a modified copy of gs.
+		 */
+		protected EXGridState resultState(EXGridState gs, int x, int y){
+			if(this.statePool != null){
+				PackedStateCodec codec = this.statePool.getCodec();
+				return (EXGridState)this.statePool.get(codec.with(codec.with(0L, 0, x), 1, y));
+			}
+			EXGridState ns = gs.copy();
+			ns.x = x;
+			ns.y = y;
+			return ns;
 		}
 
 		protected int actionDir(Action a){
-			int adir = -1;
-			if(a.actionName().equals(ACTION_NORTH)){
-				adir = 0;
-			}
-			else if(a.actionName().equals(ACTION_SOUTH)){
-				adir = 1;
-			}
-			else if(a.actionName().equals(ACTION_EAST)){
-				adir = 2;
-			}
-			else if(a.actionName().equals(ACTION_WEST)){
-				adir = 3;
-			}
-			return adir;
+			//action ordinals are the directions 0: north; 1: south; 2: east; 3: west
+			return OrdinalActionType.ordinal(a, ACTION_NAMES);
 		}
 
 
@@ -316,8 +351,8 @@ public class ExampleGridWorld implements DomainGenerator {
 			float width = cWidth / fWidth;
 			float height = cHeight / fHeight;
 
-			int ax = (Integer)s.get(VAR_X);
-			int ay = (Integer)s.get(VAR_Y);
+			int ax = IntState.Helper.getInt(s, VAR_X);
+			int ay = IntState.Helper.getInt(s, VAR_Y);
 
 			//left coordinate of cell on our canvas
 			float rx = ax*width;
@@ -351,8 +386,8 @@ public class ExampleGridWorld implements DomainGenerator {
 		@Override
 		public double reward(State s, Action a, State sprime) {
 
-			int ax = (Integer)s.get(VAR_X);
-			int ay = (Integer)s.get(VAR_Y);
+			int ax = IntState.Helper.getInt(s, VAR_X);
+			int ay = IntState.Helper.getInt(s, VAR_Y);
 
 			//are they at goal location?
 			if(ax == this.goalX && ay == this.goalY){
@@ -379,8 +414,8 @@ public class ExampleGridWorld implements DomainGenerator {
 		public boolean isTerminal(State s) {
 
 			//get location of agent in next state
-			int ax = (Integer)s.get(VAR_X);
-			int ay = (Integer)s.get(VAR_Y);
+			int ax = IntState.Helper.getInt(s, VAR_X);
+			int ay = IntState.Helper.getInt(s, VAR_Y);
 
 			//are they at goal location?
 			if(ax == this.goalX && ay == this.goalY){
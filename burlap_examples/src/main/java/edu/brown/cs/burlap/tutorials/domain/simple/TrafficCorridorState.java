@@ -0,0 +1,110 @@
+package edu.brown.cs.burlap.tutorials.domain.simple;
+
+import burlap.mdp.core.state.MutableState;
+import burlap.mdp.core.state.StateUtilities;
+import burlap.mdp.core.state.UnknownKeyException;
+import burlap.mdp.core.state.annotations.DeepCopyState;
+import edu.brown.cs.burlap.tutorials.domain.IntState;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static edu.brown.cs.burlap.tutorials.domain.simple.TrafficCorridorWorld.VAR_X;
+
+/**
+ * The state of a {@link TrafficCorridorWorld}: the position of the vehicle and the color of each light.
+ * Light i has the variable key {@link TrafficCorridorWorld#lightKey(int)}.
+ */
+@DeepCopyState
+public class TrafficCorridorState implements MutableState, IntState {
+
+	public int x;
+	public int [] lights;
+
+	// Variable keys, shared by all states with the same number of lights
+	protected List<Object> keys;
+
+
+	public TrafficCorridorState() {
+		this(0, new int[0]);
+	}
+
+	public TrafficCorridorState(int x, int numLights) {
+		this(x, new int[numLights]);
+	}
+
+	public TrafficCorridorState(int x, int [] lights) {
+		this(x, lights, keysFor(lights.length));
+	}
+
+	protected TrafficCorridorState(int x, int [] lights, List<Object> keys) {
+		this.x = x;
+		this.lights = lights;
+		this.keys = keys;
+	}
+
+	protected static List<Object> keysFor(int numLights){
+		List<Object> keys = new ArrayList<Object>(numLights + 1);
+		keys.add(VAR_X);
+		for(int i = 0; i < numLights; i++){
+			keys.add(TrafficCorridorWorld.lightKey(i));
+		}
+		return keys;
+	}
+
+	// Index of the light with the given key, or -1
+	protected int lightIndex(Object variableKey){
+		for(int i = 1; i < this.keys.size(); i++){
+			if(this.keys.get(i).equals(variableKey)){
+				return i - 1;
+			}
+		}
+		return -1;
+	}
+
+	@Override
+	public MutableState set(Object variableKey, Object value) {
+		if(variableKey.equals(VAR_X)){
+			this.x = StateUtilities.stringOrNumber(value).intValue();
+			return this;
+		}
+		int i = this.lightIndex(variableKey);
+		if(i == -1){
+			throw new UnknownKeyException(variableKey);
+		}
+		this.lights[i] = StateUtilities.stringOrNumber(value).intValue();
+		return this;
+	}
+
+	@Override
+	public List<Object> variableKeys() {
+		return this.keys;
+	}
+
+	@Override
+	public Object get(Object variableKey) {
+		return this.getInt(variableKey);
+	}
+
+	@Override
+	public int getInt(Object variableKey) {
+		if(variableKey.equals(VAR_X)){
+			return this.x;
+		}
+		int i = this.lightIndex(variableKey);
+		if(i == -1){
+			throw new UnknownKeyException(variableKey);
+		}
+		return this.lights[i];
+	}
+
+	@Override
+	public TrafficCorridorState copy() {
+		return new TrafficCorridorState(this.x, this.lights.clone(), this.keys);
+	}
+
+	@Override
+	public String toString() {
+		return StateUtilities.stateToString(this);
+	}
+}
@@ -0,0 +1,412 @@
+package edu.brown.cs.burlap.tutorials.domain.simple;
+
+import burlap.mdp.auxiliary.DomainGenerator;
+import burlap.mdp.core.StateTransitionProb;
+import burlap.mdp.core.TerminalFunction;
+import burlap.mdp.core.action.Action;
+import burlap.mdp.core.state.State;
+import burlap.mdp.singleagent.SADomain;
+import burlap.mdp.singleagent.environment.EnvironmentOutcome;
+import burlap.mdp.singleagent.environment.SimulatedEnvironment;
+import burlap.mdp.singleagent.model.FactoredModel;
+import burlap.mdp.singleagent.model.RewardFunction;
+import edu.brown.cs.burlap.tutorials.domain.FactoredStateModel;
+import edu.brown.cs.burlap.tutorials.domain.IntState;
+import edu.brown.cs.burlap.tutorials.domain.OrdinalActionType;
+import edu.brown.cs.burlap.tutorials.domain.PackedStateCodec;
+import edu.brown.cs.burlap.tutorials.domain.RandomStreams;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static edu.brown.cs.burlap.tutorials.domain.simple.TrafficLightGridWorld.*;
+
+/**
+ * A one dimensional corridor of any length with any number of traffic lights, a scaled up
+ * {@link TrafficLightGridWorld}. The vehicle starts anywhere and must reach the last cell; each light
+ * cycles green, yellow, red on its own, and ending a step on a red light is penalized. Actions and
+ * light colors are those of {@link TrafficLightGridWorld}.
+ * <p>
+ * The lights change independently of each other, so the model is a {@link FactoredStateModel}: the
+ * position and each light are factors, and their per-factor distributions are available without
+ * enumerating the 2^K joint outcomes of K lights.
+ */
+public class TrafficCorridorWorld implements DomainGenerator {
+
+	public static final String VAR_X = "x";
+	public static final String VAR_LIGHT_PREFIX = "light";
+
+	protected int length;
+	protected int [] lightPositions;
+
+	// Per-light transition probabilities
+	protected double [] greenToYellowTransitionProbs;
+	protected double [] yellowToRedTransitionProbs;
+	protected double [] redToGreenTransitionProbs;
+
+	// Rewards
+	protected double goalReward = 100;
+	protected double redLightReward = -100;
+	protected double forwardReward = -1.0;
+	protected double stopReward = -2.0;
+	protected double reverseReward = -3.0;
+
+	// Source of randomness for sampled transitions
+	protected RandomStreams randomStreams = new RandomStreams(System.nanoTime());
+
+
+	/**
+	 * @param length the number of cells; the goal is the last one
+	 * @param lightPositions the cell of each light
+	 */
+	public TrafficCorridorWorld(int length, int [] lightPositions) {
+		if(length < 2){
+			throw new IllegalArgumentException("The corridor needs at least 2 cells");
+		}
+		for(int p : lightPositions){
+			if(p < 0 || p >= length){
+				throw new IllegalArgumentException("Light position " + p + " is outside the corridor of length " + length);
+			}
+		}
+		this.length = length;
+		this.lightPositions = lightPositions.clone();
+		int k = lightPositions.length;
+		this.greenToYellowTransitionProbs = new double[k];
+		this.yellowToRedTransitionProbs = new double[k];
+		this.redToGreenTransitionProbs = new double[k];
+		this.setTransitionProbabilities(0.4, 0.8, 0.8);
+	}
+
+	/**
+	 * Returns a corridor of the given length with numLights lights spaced evenly between the start and the goal.
+	 */
+	public static TrafficCorridorWorld evenlySpaced(int length, int numLights){
+		int [] positions = new int[numLights];
+		for(int i = 0; i < numLights; i++){
+			positions[i] = (int)((long)(i + 1) * (length - 1) / (numLights + 1));
+		}
+		return new TrafficCorridorWorld(length, positions);
+	}
+
+	/**
+	 * Returns the variable key of light i.
+	 */
+	public static String lightKey(int i){
+		return VAR_LIGHT_PREFIX + i;
+	}
+
+	public int getLength() {
+		return this.length;
+	}
+
+	public int getNumLights() {
+		return this.lightPositions.length;
+	}
+
+	/**
+	 * Sets the transition probabilities of every light.
+	 */
+	public void setTransitionProbabilities(double greenToYellowTransitionProb,
+										   double yellowToRedTransitionProb,
+										   double redToGreenTransitionProb) {
+		Arrays.fill(this.greenToYellowTransitionProbs, greenToYellowTransitionProb);
+		Arrays.fill(this.yellowToRedTransitionProbs, yellowToRedTransitionProb);
+		Arrays.fill(this.redToGreenTransitionProbs, redToGreenTransitionProb);
+	}
+
+	/**
+	 * Sets the transition probabilities of one light.
+	 */
+	public void setLightTransitionProbabilities(int light,
+												double greenToYellowTransitionProb,
+												double yellowToRedTransitionProb,
+												double redToGreenTransitionProb) {
+		this.greenToYellowTransitionProbs[light] = greenToYellowTransitionProb;
+		this.yellowToRedTransitionProbs[light] = yellowToRedTransitionProb;
+		this.redToGreenTransitionProbs[light] = redToGreenTransitionProb;
+	}
+
+	public void setRewards(double goalReward,
+						   double redLightReward,
+						   double forwardReward,
+						   double stopReward,
+						   double reverseReward) {
+		this.goalReward = goalReward;
+		this.redLightReward = redLightReward;
+		this.forwardReward = forwardReward;
+		this.stopReward = stopReward;
+		this.reverseReward = reverseReward;
+	}
+
+	public void setRandomStreams(RandomStreams randomStreams){
+		this.randomStreams = randomStreams;
+	}
+
+	/**
+	 * Returns the state with the vehicle in cell x and every light green.
+	 */
+	public TrafficCorridorState state(int x){
+		return new TrafficCorridorState(x, this.lightPositions.length);
+	}
+
+	/**
+	 * Returns a codec that packs the states of this corridor into a long, with just enough bits for its
+	 * length and two bits per light.
+	 */
+	public PackedStateCodec packedCodec(){
+		List<Object> keys = this.state(0).variableKeys();
+		int [] bits = new int[keys.size()];
+		Arrays.fill(bits, PackedStateCodec.bitsFor(RED));
+		bits[0] = PackedStateCodec.bitsFor(this.length - 1);
+		return new PackedStateCodec(this.state(0), keys.toArray(), bits);
+	}
+
+	@Override
+	public SADomain generateDomain() {
+		SADomain domain = new SADomain();
+		domain.addActionTypes(
+				new OrdinalActionType(ACTION_REVERSE, ORDINAL_REVERSE),
+				new OrdinalActionType(ACTION_FORWARD, ORDINAL_FORWARD),
+				new OrdinalActionType(ACTION_STOP, ORDINAL_STOP));
+
+		CorridorStateModel smodel = new CorridorStateModel();
+		RewardFunction rf = new CorridorRF(this.length, this.lightPositions, this.goalReward, this.redLightReward,
+				this.forwardReward, this.stopReward, this.reverseReward);
+		TerminalFunction tf = new CorridorTF(this.length - 1);
+		domain.setModel(new FactoredModel(smodel, rf, tf));
+		return domain;
+	}
+
+
+	protected class CorridorStateModel implements FactoredStateModel {
+
+		protected int length = TrafficCorridorWorld.this.length;
+
+		// Probability that each light changes from each color, indexed by [light][color]
+		protected double [][] changeProbs;
+
+		protected List<Object> factorKeys = TrafficCorridorWorld.this.state(0).variableKeys();
+
+		// Random streams that sampled transitions draw from
+		protected RandomStreams randomStreams = TrafficCorridorWorld.this.randomStreams;
+
+		public CorridorStateModel() {
+			int k = TrafficCorridorWorld.this.lightPositions.length;
+			this.changeProbs = new double[k][];
+			for(int i = 0; i < k; i++){
+				this.changeProbs[i] = new double[]{
+						TrafficCorridorWorld.this.greenToYellowTransitionProbs[i],
+						TrafficCorridorWorld.this.yellowToRedTransitionProbs[i],
+						TrafficCorridorWorld.this.redToGreenTransitionProbs[i]};
+			}
+		}
+
+		protected int moveResult(int x, Action a){
+			int newX = x;
+			switch (OrdinalActionType.ordinal(a, ACTION_NAMES)) {
+				case ORDINAL_FORWARD:
+					newX = x + 1;
+					break;
+				case ORDINAL_REVERSE:
+					newX = x - 1;
+					break;
+			}
+			if(newX < 0 || newX >= this.length){
+				return x;
+			}
+			return newX;
+		}
+
+		protected int nextLight(int light){
+			return light == RED ? GREEN : light + 1;
+		}
+
+		@Override
+		public State sample(State s, Action a) {
+			TrafficCorridorState gs = ((TrafficCorridorState)s).copy();
+			gs.x = this.moveResult(gs.x, a);
+			for(int i = 0; i < gs.lights.length; i++){
+				if(this.randomStreams.nextDouble() < this.changeProbs[i][gs.lights[i]]){
+					gs.lights[i] = this.nextLight(gs.lights[i]);
+				}
+			}
+			return gs;
+		}
+
+		/**
+		 * Returns the product of the per-light distributions: up to 2^K outcomes for K lights.
+		 */
+		@Override
+		public List<StateTransitionProb> stateTransitions(State s, Action a) {
+			TrafficCorridorState gs = (TrafficCorridorState)s;
+			TrafficCorridorState ns = gs.copy();
+			ns.x = this.moveResult(gs.x, a);
+			List<StateTransitionProb> tps = new ArrayList<StateTransitionProb>();
+			this.enumerateLights(gs, ns, 0, 1., tps);
+			return tps;
+		}
+
+		// Adds the joint outcomes of lights i and up, given the outcomes chosen for the lights before i
+		protected void enumerateLights(TrafficCorridorState gs, TrafficCorridorState ns, int i, double p,
+									   List<StateTransitionProb> tps){
+			if(i == gs.lights.length){
+				tps.add(new StateTransitionProb(ns.copy(), p));
+				return;
+			}
+			double change = this.changeProbs[i][gs.lights[i]];
+			if(change != 1.){
+				ns.lights[i] = gs.lights[i];
+				this.enumerateLights(gs, ns, i + 1, p * (1. - change), tps);
+			}
+			if(change != 0.){
+				ns.lights[i] = this.nextLight(gs.lights[i]);
+				this.enumerateLights(gs, ns, i + 1, p * change, tps);
+			}
+		}
+
+		@Override
+		public List<Object> factorKeys() {
+			return this.factorKeys;
+		}
+
+		@Override
+		public int maxFactorOutcomes() {
+			return 2;
+		}
+
+		@Override
+		public int factorOutcomes(State s, Action a, int factor, int [] values, double [] probs) {
+			TrafficCorridorState gs = (TrafficCorridorState)s;
+			if(factor == 0){
+				values[0] = this.moveResult(gs.x, a);
+				probs[0] = 1.;
+				return 1;
+			}
+			int light = gs.lights[factor - 1];
+			double change = this.changeProbs[factor - 1][light];
+			int n = 0;
+			if(change != 1.){
+				values[n] = light;
+				probs[n++] = 1. - change;
+			}
+			if(change != 0.){
+				values[n] = this.nextLight(light);
+				probs[n++] = change;
+			}
+			return n;
+		}
+	}
+
+	public static class CorridorRF implements RewardFunction {
+
+		int goalX;
+
+		// Index of the light in each cell, or -1
+		int [] lightAt;
+
+		double goalReward;
+		double redLightReward;
+		double forwardReward;
+		double stopReward;
+		double reverseReward;
+
+		public CorridorRF(int length, int [] lightPositions, double goalReward, double redLightReward,
+						  double forwardReward, double stopReward, double reverseReward) {
+			this.goalX = length - 1;
+			this.lightAt = new int[length];
+			Arrays.fill(this.lightAt, -1);
+			for(int i = 0; i < lightPositions.length; i++){
+				this.lightAt[lightPositions[i]] = i;
+			}
+			this.goalReward = goalReward;
+			this.redLightReward = redLightReward;
+			this.forwardReward = forwardReward;
+			this.stopReward = stopReward;
+			this.reverseReward = reverseReward;
+		}
+
+		@Override
+		public double reward(State s, Action a, State sprime) {
+			TrafficCorridorState ns = (TrafficCorridorState)sprime;
+
+			double r = 0.;
+			switch (OrdinalActionType.ordinal(a, ACTION_NAMES)) {
+				case ORDINAL_STOP:
+					r = this.stopReward;
+					break;
+				case ORDINAL_FORWARD:
+					r = this.forwardReward;
+					break;
+				case ORDINAL_REVERSE:
+					r = this.reverseReward;
+					break;
+			}
+
+			if(ns.x == this.goalX){
+				return r + this.goalReward;
+			}
+			int light = this.lightAt[ns.x];
+			if(light != -1 && ns.lights[light] == RED){
+				return r + this.redLightReward;
+			}
+			return r;
+		}
+	}
+
+	public static class CorridorTF implements TerminalFunction {
+
+		int goalX;
+
+		public CorridorTF(int goalX) {
+			this.goalX = goalX;
+		}
+
+		@Override
+		public boolean isTerminal(State s) {
+			return IntState.Helper.getInt(s, VAR_X) == this.goalX;
+		}
+	}
+
+
+	public static void main(String[] args) {
+
+		//a corridor of 1200 cells with 12 lights
+		TrafficCorridorWorld gen = TrafficCorridorWorld.evenlySpaced(1200, 12);
+		gen.setTransitionProbabilities(0.3, 0.9, 0.8);
+		gen.setRewards(20.0, -20.0, -1.0, -2.0, -3.0);
+		SADomain domain = gen.generateDomain();
+		FactoredStateModel model = (FactoredStateModel)((FactoredModel)domain.getModel()).getStateModel();
+
+		//compare the size of the joint outcome list with the per-light distributions
+		State s = gen.state(0);
+		Action forward = domain.getAction(ACTION_FORWARD).associatedAction("");
+		int [] values = new int[model.maxFactorOutcomes()];
+		double [] probs = new double[model.maxFactorOutcomes()];
+		int factored = 0;
+		for(int f = 0; f < model.factorKeys().size(); f++){
+			factored += model.factorOutcomes(s, forward, f, values, probs);
+		}
+		System.out.println("Joint outcomes: " + model.stateTransitions(s, forward).size() + ", factored outcomes: " + factored);
+		System.out.println("Packed state bits: " + gen.packedCodec().totalBits());
+
+		//drive forward through the corridor
+		SimulatedEnvironment env = new SimulatedEnvironment(domain, s);
+		long start = System.nanoTime();
+		int numEpisodes = 100;
+		long steps = 0;
+		double totalReturn = 0.;
+		for(int i = 0; i < numEpisodes; i++){
+			while(!env.isInTerminalState()){
+				EnvironmentOutcome eo = env.executeAction(forward);
+				totalReturn += eo.r;
+				steps++;
+			}
+			env.resetEnvironment();
+		}
+		System.out.println(numEpisodes + " episodes, " + steps + " steps, mean return " + totalReturn / numEpisodes
+				+ " in " + (System.nanoTime() - start) / 1000000 + "ms");
+
+	}
+
+}
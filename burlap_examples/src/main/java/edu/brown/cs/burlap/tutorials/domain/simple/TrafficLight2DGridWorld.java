@@ -0,0 +1,459 @@
+package edu.brown.cs.burlap.tutorials.domain.simple;
+
+import burlap.mdp.auxiliary.DomainGenerator;
+import burlap.mdp.core.StateTransitionProb;
+import burlap.mdp.core.TerminalFunction;
+import burlap.mdp.core.action.Action;
+import burlap.mdp.core.state.State;
+import burlap.mdp.singleagent.SADomain;
+import burlap.mdp.singleagent.environment.SimulatedEnvironment;
+import burlap.mdp.singleagent.model.FactoredModel;
+import burlap.mdp.singleagent.model.RewardFunction;
+import burlap.mdp.singleagent.model.statemodel.FullStateModel;
+import burlap.shell.visual.VisualExplorer;
+import burlap.visualizer.StatePainter;
+import burlap.visualizer.StateRenderLayer;
+import burlap.visualizer.Visualizer;
+import edu.brown.cs.burlap.tutorials.domain.IntState;
+import edu.brown.cs.burlap.tutorials.domain.OrdinalActionType;
+import edu.brown.cs.burlap.tutorials.domain.PackedStateCodec;
+import edu.brown.cs.burlap.tutorials.domain.RandomStreams;
+
+import java.awt.*;
+import java.awt.geom.Ellipse2D;
+import java.awt.geom.Rectangle2D;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A two dimensional grid with two traffic lights, for {@link TrafficLight2DGridState}s. The vehicle moves
+ * deterministically north, south, east or west, or stops, and must reach the goal cell; walls and the
+ * edges of the map block movement. Each light cycles green, yellow, red with its own probabilities, and
+ * ending a step on a red light is penalized.
+ * <p>
+ * All dynamics are compiled into tables when the domain is generated: a move table from (cell, action)
+ * to the next cell, a table of light change probabilities per light and color, and a table of the light
+ * in each cell. Sampling and enumerating transitions are then a few array reads. The map size and the
+ * positions of the lights and goal are configurable, so the domain can be scaled up as a benchmark.
+ */
+public class TrafficLight2DGridWorld implements DomainGenerator {
+
+	public static final String VAR_X = "x";
+	public static final String VAR_Y = "y";
+	public static final String VAR_LIGHT0 = "light0";
+	public static final String VAR_LIGHT1 = "light1";
+
+	public static final String ACTION_NORTH = "north";
+	public static final String ACTION_SOUTH = "south";
+	public static final String ACTION_EAST = "east";
+	public static final String ACTION_WEST = "west";
+	public static final String ACTION_STOP = "stop";
+
+	//action names indexed by their ordinals
+	public static final String [] ACTION_NAMES = new String[]{ACTION_NORTH, ACTION_SOUTH, ACTION_EAST, ACTION_WEST, ACTION_STOP};
+
+	//change in x and y of each action
+	protected static final int [] ACTION_DX = new int[]{0, 0, 1, -1, 0};
+	protected static final int [] ACTION_DY = new int[]{1, -1, 0, 0, 0};
+
+	public static final int GREEN = TrafficLightGridWorld.GREEN;
+	public static final int YELLOW = TrafficLightGridWorld.YELLOW;
+	public static final int RED = TrafficLightGridWorld.RED;
+
+	//the color each color changes to
+	protected static final int [] NEXT_COLOR = new int[]{YELLOW, RED, GREEN};
+
+
+	//ordered so first dimension is x; 1 marks a wall
+	protected int [][] map;
+
+	protected int goalx;
+	protected int goaly;
+	protected int [] lightx = new int[2];
+	protected int [] lighty = new int[2];
+
+	//per-light probabilities of changing from green, yellow and red
+	protected double [][] lightChangeProbs = new double[][]{{0.4, 0.8, 0.8}, {0.4, 0.8, 0.8}};
+
+	protected double goalReward = 100;
+	protected double redLightReward = -100;
+	protected double moveReward = -1.0;
+	protected double stopReward = -2.0;
+
+	//source of randomness for sampled transitions
+	protected RandomStreams randomStreams = new RandomStreams(System.nanoTime());
+
+
+	public TrafficLight2DGridWorld() {
+		this(11, 11);
+	}
+
+	/**
+	 * Creates an open width by height grid with the goal in the top right corner and the lights on the
+	 * middle row and column.
+	 */
+	public TrafficLight2DGridWorld(int width, int height) {
+		this.map = new int[width][height];
+		this.goalx = width - 1;
+		this.goaly = height - 1;
+		this.setLightLocation(0, width / 2, height - 1);
+		this.setLightLocation(1, width - 1, height / 2);
+	}
+
+	/**
+	 * Sets the map, indexed [x][y], where 1 marks a wall.
+	 */
+	public void setMap(int [][] map){
+		this.map = map;
+	}
+
+	public void setGoalLocation(int goalx, int goaly){
+		this.goalx = goalx;
+		this.goaly = goaly;
+	}
+
+	public void setLightLocation(int light, int x, int y){
+		this.lightx[light] = x;
+		this.lighty[light] = y;
+	}
+
+	/**
+	 * Sets the transition probabilities of one light.
+	 */
+	public void setTransitionProbabilities(int light,
+										   double greenToYellowTransitionProb,
+										   double yellowToRedTransitionProb,
+										   double redToGreenTransitionProb){
+		this.lightChangeProbs[light] = new double[]{greenToYellowTransitionProb, yellowToRedTransitionProb, redToGreenTransitionProb};
+	}
+
+	public void setRewards(double goalReward, double redLightReward, double moveReward, double stopReward){
+		this.goalReward = goalReward;
+		this.redLightReward = redLightReward;
+		this.moveReward = moveReward;
+		this.stopReward = stopReward;
+	}
+
+	public void setRandomStreams(RandomStreams randomStreams){
+		this.randomStreams = randomStreams;
+	}
+
+	public int getWidth() {
+		return this.map.length;
+	}
+
+	public int getHeight() {
+		return this.map[0].length;
+	}
+
+	/**
+	 * Returns a codec that packs the states of this grid into ints, with just enough bits for its size
+	 * and two bits per light.
+	 */
+	public PackedStateCodec packedCodec(){
+		int lightBits = PackedStateCodec.bitsFor(RED);
+		return new PackedStateCodec(new TrafficLight2DGridState(),
+				new Object[]{VAR_X, VAR_Y, VAR_LIGHT0, VAR_LIGHT1},
+				new int[]{PackedStateCodec.bitsFor(this.getWidth() - 1), PackedStateCodec.bitsFor(this.getHeight() - 1), lightBits, lightBits});
+	}
+
+	@Override
+	public SADomain generateDomain() {
+		SADomain domain = new SADomain();
+		for(int i = 0; i < ACTION_NAMES.length; i++){
+			domain.addActionType(new OrdinalActionType(ACTION_NAMES[i], i));
+		}
+
+		Tables tables = new Tables();
+		domain.setModel(new FactoredModel(new TableStateModel(tables), new TableRF(tables), new TableTF(tables)));
+		return domain;
+	}
+
+
+	/**
+	 * The compiled dynamics of a generator's current settings. Cells are indexed x * height + y.
+	 * Throws an IllegalArgumentException if the goal or a light is off the map or both lights share a cell.
+	 */
+	public class Tables {
+
+		public final int width = TrafficLight2DGridWorld.this.getWidth();
+		public final int height = TrafficLight2DGridWorld.this.getHeight();
+		public final int numActions = ACTION_NAMES.length;
+
+		//next cell of each (cell, action), indexed cell * numActions + action
+		public final int [] moves;
+
+		//light in each cell, or -1
+		public final int [] lightAt;
+
+		//probability that each light changes from each color, indexed light * 3 + color
+		public final double [] changeProbs;
+
+		public final int goalCell;
+		public final double [] actionRewards;
+		public final double goalReward = TrafficLight2DGridWorld.this.goalReward;
+		public final double redLightReward = TrafficLight2DGridWorld.this.redLightReward;
+
+		public Tables() {
+			int [][] map = TrafficLight2DGridWorld.this.map;
+			int numCells = this.width * this.height;
+
+			this.checkOnMap("The goal", TrafficLight2DGridWorld.this.goalx, TrafficLight2DGridWorld.this.goaly);
+			for(int l = 0; l < 2; l++){
+				this.checkOnMap("Light " + l, TrafficLight2DGridWorld.this.lightx[l], TrafficLight2DGridWorld.this.lighty[l]);
+			}
+			if(TrafficLight2DGridWorld.this.lightx[0] == TrafficLight2DGridWorld.this.lightx[1]
+					&& TrafficLight2DGridWorld.this.lighty[0] == TrafficLight2DGridWorld.this.lighty[1]){
+				throw new IllegalArgumentException("Both lights are at " + TrafficLight2DGridWorld.this.lightx[0] + ", "
+						+ TrafficLight2DGridWorld.this.lighty[0] + "; each cell can hold one light");
+			}
+
+			this.moves = new int[numCells * this.numActions];
+			for(int x = 0; x < this.width; x++){
+				for(int y = 0; y < this.height; y++){
+					for(int a = 0; a < this.numActions; a++){
+						int nx = x + ACTION_DX[a];
+						int ny = y + ACTION_DY[a];
+						//stay put when blocked by an edge or a wall
+						if(nx < 0 || nx >= this.width || ny < 0 || ny >= this.height || map[nx][ny] == 1){
+							nx = x;
+							ny = y;
+						}
+						this.moves[this.cell(x, y) * this.numActions + a] = this.cell(nx, ny);
+					}
+				}
+			}
+
+			this.lightAt = new int[numCells];
+			Arrays.fill(this.lightAt, -1);
+			this.changeProbs = new double[2 * 3];
+			for(int l = 0; l < 2; l++){
+				this.lightAt[this.cell(TrafficLight2DGridWorld.this.lightx[l], TrafficLight2DGridWorld.this.lighty[l])] = l;
+				System.arraycopy(TrafficLight2DGridWorld.this.lightChangeProbs[l], 0, this.changeProbs, l * 3, 3);
+			}
+
+			this.goalCell = this.cell(TrafficLight2DGridWorld.this.goalx, TrafficLight2DGridWorld.this.goaly);
+			this.actionRewards = new double[this.numActions];
+			Arrays.fill(this.actionRewards, TrafficLight2DGridWorld.this.moveReward);
+			this.actionRewards[4] = TrafficLight2DGridWorld.this.stopReward;
+		}
+
+		protected void checkOnMap(String what, int x, int y){
+			if(x < 0 || x >= this.width || y < 0 || y >= this.height){
+				throw new IllegalArgumentException(what + " at " + x + ", " + y + " is outside the "
+						+ this.width + "x" + this.height + " map");
+			}
+		}
+
+		public int cell(int x, int y){
+			return x * this.height + y;
+		}
+
+		/**
+		 * Returns the ordinal of an action of this domain; throws an IllegalArgumentException for any other action.
+		 */
+		public int actionOrdinal(Action a){
+			int ordinal = OrdinalActionType.ordinal(a, ACTION_NAMES);
+			if(ordinal == -1){
+				throw new IllegalArgumentException("Unknown action " + a.actionName());
+			}
+			return ordinal;
+		}
+
+		public int nextCell(int x, int y, Action a){
+			return this.moves[this.cell(x, y) * this.numActions + this.actionOrdinal(a)];
+		}
+
+		public double changeProb(int light, int color){
+			return this.changeProbs[light * 3 + color];
+		}
+	}
+
+	public class TableStateModel implements FullStateModel {
+
+		protected Tables tables;
+
+		//random streams that sampled light transitions draw from
+		protected RandomStreams randomStreams = TrafficLight2DGridWorld.this.randomStreams;
+
+		public TableStateModel(Tables tables) {
+			this.tables = tables;
+		}
+
+		@Override
+		public State sample(State s, Action a) {
+			TrafficLight2DGridState gs = (TrafficLight2DGridState)s;
+			int next = this.tables.nextCell(gs.x, gs.y, a);
+			int light0 = this.randomStreams.nextDouble() < this.tables.changeProb(0, gs.light0) ? NEXT_COLOR[gs.light0] : gs.light0;
+			int light1 = this.randomStreams.nextDouble() < this.tables.changeProb(1, gs.light1) ? NEXT_COLOR[gs.light1] : gs.light1;
+			return new TrafficLight2DGridState(next / this.tables.height, next % this.tables.height, light0, light1);
+		}
+
+		@Override
+		public List<StateTransitionProb> stateTransitions(State s, Action a) {
+			TrafficLight2DGridState gs = (TrafficLight2DGridState)s;
+			int next = this.tables.nextCell(gs.x, gs.y, a);
+			int nx = next / this.tables.height;
+			int ny = next % this.tables.height;
+			double p0 = this.tables.changeProb(0, gs.light0);
+			double p1 = this.tables.changeProb(1, gs.light1);
+
+			//up to four outcomes: each light stays or changes
+			List<StateTransitionProb> tps = new ArrayList<StateTransitionProb>(4);
+			for(int c0 = 0; c0 < 2; c0++){
+				double q0 = c0 == 0 ? 1. - p0 : p0;
+				if(q0 == 0.){
+					continue;
+				}
+				for(int c1 = 0; c1 < 2; c1++){
+					double q1 = c1 == 0 ? 1. - p1 : p1;
+					if(q1 == 0.){
+						continue;
+					}
+					tps.add(new StateTransitionProb(new TrafficLight2DGridState(nx, ny,
+							c0 == 0 ? gs.light0 : NEXT_COLOR[gs.light0],
+							c1 == 0 ? gs.light1 : NEXT_COLOR[gs.light1]), q0 * q1));
+				}
+			}
+			return tps;
+		}
+	}
+
+	public static class TableRF implements RewardFunction {
+
+		protected Tables tables;
+
+		public TableRF(Tables tables) {
+			this.tables = tables;
+		}
+
+		@Override
+		public double reward(State s, Action a, State sprime) {
+			TrafficLight2DGridState ns = (TrafficLight2DGridState)sprime;
+			double r = this.tables.actionRewards[this.tables.actionOrdinal(a)];
+			int cell = this.tables.cell(ns.x, ns.y);
+			if(cell == this.tables.goalCell){
+				return r + this.tables.goalReward;
+			}
+			int light = this.tables.lightAt[cell];
+			if(light != -1 && (light == 0 ? ns.light0 : ns.light1) == RED){
+				return r + this.tables.redLightReward;
+			}
+			return r;
+		}
+	}
+
+	public static class TableTF implements TerminalFunction {
+
+		protected Tables tables;
+
+		public TableTF(Tables tables) {
+			this.tables = tables;
+		}
+
+		@Override
+		public boolean isTerminal(State s) {
+			return this.tables.cell(IntState.Helper.getInt(s, VAR_X), IntState.Helper.getInt(s, VAR_Y)) == this.tables.goalCell;
+		}
+	}
+
+
+	public class MapPainter implements StatePainter {
+
+		@Override
+		public void paint(Graphics2D g2, State s, float cWidth, float cHeight) {
+
+			//set up floats for the width and height of our domain
+			float fWidth = TrafficLight2DGridWorld.this.getWidth();
+			float fHeight = TrafficLight2DGridWorld.this.getHeight();
+
+			//determine the width of a single cell on our canvas
+			//such that the whole map can be painted
+			float width = cWidth / fWidth;
+			float height = cHeight / fHeight;
+
+			//walls
+			g2.setColor(Color.BLACK);
+			for(int i = 0; i < TrafficLight2DGridWorld.this.getWidth(); i++){
+				for(int j = 0; j < TrafficLight2DGridWorld.this.getHeight(); j++){
+					if(TrafficLight2DGridWorld.this.map[i][j] == 1){
+						this.paintCell(g2, i, j, width, height, cHeight);
+					}
+				}
+			}
+
+			//lights, in their current colors
+			for(int l = 0; l < 2; l++){
+				int color = IntState.Helper.getInt(s, l == 0 ? VAR_LIGHT0 : VAR_LIGHT1);
+				g2.setColor(color == GREEN ? Color.GREEN : color == YELLOW ? Color.YELLOW : Color.RED);
+				this.paintCell(g2, TrafficLight2DGridWorld.this.lightx[l], TrafficLight2DGridWorld.this.lighty[l], width, height, cHeight);
+			}
+
+			//goal
+			g2.setColor(Color.CYAN);
+			this.paintCell(g2, TrafficLight2DGridWorld.this.goalx, TrafficLight2DGridWorld.this.goaly, width, height, cHeight);
+		}
+
+		protected void paintCell(Graphics2D g2, int i, int j, float width, float height, float cHeight){
+			//coordinate system adjustment because the java canvas
+			//origin is in the top left instead of the bottom right
+			g2.fill(new Rectangle2D.Float(i*width, cHeight - height - j*height, width, height));
+		}
+	}
+
+	public class AgentPainter implements StatePainter {
+
+		@Override
+		public void paint(Graphics2D g2, State s, float cWidth, float cHeight) {
+
+			//agent will be filled in gray
+			g2.setColor(Color.GRAY);
+
+			float width = cWidth / TrafficLight2DGridWorld.this.getWidth();
+			float height = cHeight / TrafficLight2DGridWorld.this.getHeight();
+
+			int ax = IntState.Helper.getInt(s, VAR_X);
+			int ay = IntState.Helper.getInt(s, VAR_Y);
+
+			g2.fill(new Ellipse2D.Float(ax*width, cHeight - height - ay*height, width, height));
+		}
+	}
+
+	public StateRenderLayer getStateRenderLayer(){
+		StateRenderLayer rl = new StateRenderLayer();
+		rl.addStatePainter(new TrafficLight2DGridWorld.MapPainter());
+		rl.addStatePainter(new TrafficLight2DGridWorld.AgentPainter());
+		return rl;
+	}
+
+	public Visualizer getVisualizer(){
+		return new Visualizer(this.getStateRenderLayer());
+	}
+
+
+	public static void main(String[] args) {
+
+		TrafficLight2DGridWorld gen = new TrafficLight2DGridWorld(11, 11);
+		gen.setTransitionProbabilities(0, 0.3, 0.9, 0.8);
+		gen.setTransitionProbabilities(1, 0.5, 0.9, 0.5);
+		gen.setRewards(20.0, -20.0, -1.0, -2.0);
+		SADomain domain = gen.generateDomain();
+
+		State initialState = new TrafficLight2DGridState(0, 0, GREEN, GREEN);
+
+		SimulatedEnvironment env = new SimulatedEnvironment(domain, initialState);
+		Visualizer v = gen.getVisualizer();
+		VisualExplorer exp = new VisualExplorer(domain, env, v);
+
+		exp.addKeyAction("w", ACTION_NORTH, "");
+		exp.addKeyAction("s", ACTION_SOUTH, "");
+		exp.addKeyAction("d", ACTION_EAST, "");
+		exp.addKeyAction("a", ACTION_WEST, "");
+		exp.addKeyAction("x", ACTION_STOP, "");
+
+		exp.initGUI();
+
+	}
+
+}
@@ -0,0 +1,288 @@
+package edu.brown.cs.burlap.tutorials.domain.simple;
+
+import burlap.behavior.policy.Policy;
+import burlap.mdp.core.action.Action;
+import edu.brown.cs.burlap.tutorials.domain.OrdinalActionType;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Steps N independent copies ("lanes") of a {@link TrafficLightGridWorld} in lockstep. The position and
+ * light of every lane are kept in plain int arrays, actions are given as ints, and the transition, reward
+ * and termination of all lanes are computed in one pass without creating any states, actions or outcomes.
+ * A lane that reaches the goal, or that runs for maxEpisodeSteps steps, is reset to the initial state
+ * immediately, and its discounted return is added to the running totals.
+ * <p>
+ * The dynamics and rewards are those of the generator's settings at construction time.
+ */
+public class TrafficLightBatchEnvironment {
+
+	// Action ints, in the order the generator adds the action types
+	public static final int REVERSE = TrafficLightGridWorld.ORDINAL_REVERSE;
+	public static final int FORWARD = TrafficLightGridWorld.ORDINAL_FORWARD;
+	public static final int STOP = TrafficLightGridWorld.ORDINAL_STOP;
+
+	protected static final int [] ACTION_DIRS = new int[]{-1, 1, 0};
+
+	// Domain parameters
+	protected int length;
+	protected int goalx;
+	protected int lightx;
+	protected double [] lightChangeProbs;
+	protected int [] nextLights;
+	protected double [] actionRewards;
+	protected double goalReward;
+	protected double redLightReward;
+
+	protected int initialX;
+	protected int initialLight;
+	protected double gamma = 1.0;
+	protected int maxEpisodeSteps = -1;
+
+	// Per lane state
+	protected int [] x;
+	protected int [] light;
+	protected double [] rewards;
+	protected boolean [] terminated;
+	protected int [] laneSteps;
+	protected double [] laneReturns;
+	protected double [] laneDiscounts;
+
+	// Totals over finished episodes
+	protected long numEpisodes;
+	protected double returnSum;
+	protected long numSteps;
+
+	protected Random rand;
+
+
+	/**
+	 * @param gen the generator whose dynamics and rewards are simulated
+	 * @param numLanes the number of lanes
+	 * @param initialX the initial position of each lane
+	 * @param initialLight the initial light of each lane
+	 * @param seed the seed of the random number generator
+	 */
+	public TrafficLightBatchEnvironment(TrafficLightGridWorld gen, int numLanes, int initialX, int initialLight, long seed){
+
+		this.length = gen.map[0].length;
+		this.goalx = gen.goalx;
+		this.lightx = gen.lightx;
+		this.lightChangeProbs = new double[]{gen.greenToYellowTransitionProb, gen.yellowToRedTransitionProb, gen.redToGreenTransitionProb};
+		this.nextLights = new int[]{TrafficLightGridWorld.YELLOW, TrafficLightGridWorld.RED, TrafficLightGridWorld.GREEN};
+		this.actionRewards = new double[]{gen.reverseReward, gen.forwardReward, gen.stopReward};
+		this.goalReward = gen.goalReward;
+		this.redLightReward = gen.redLightReward;
+
+		this.initialX = initialX;
+		this.initialLight = initialLight;
+
+		this.x = new int[numLanes];
+		this.light = new int[numLanes];
+		this.rewards = new double[numLanes];
+		this.terminated = new boolean[numLanes];
+		this.laneSteps = new int[numLanes];
+		this.laneReturns = new double[numLanes];
+		this.laneDiscounts = new double[numLanes];
+
+		this.rand = new Random(seed);
+		this.resetAll();
+	}
+
+	/**
+	 * Sets the discount used for the returns of finished episodes. Defaults to 1.
+	 */
+	public void setGamma(double gamma) {
+		this.gamma = gamma;
+	}
+
+	/**
+	 * Sets the number of steps after which a lane is reset even if it has not reached the goal; -1 for no limit.
+	 */
+	public void setMaxEpisodeSteps(int maxEpisodeSteps) {
+		this.maxEpisodeSteps = maxEpisodeSteps;
+	}
+
+	public int numLanes(){
+		return this.x.length;
+	}
+
+	/**
+	 * Resets every lane to the initial state and clears the totals.
+	 */
+	public void resetAll(){
+		Arrays.fill(this.x, this.initialX);
+		Arrays.fill(this.light, this.initialLight);
+		Arrays.fill(this.rewards, 0.);
+		Arrays.fill(this.terminated, false);
+		Arrays.fill(this.laneSteps, 0);
+		Arrays.fill(this.laneReturns, 0.);
+		Arrays.fill(this.laneDiscounts, 1.);
+		this.numEpisodes = 0;
+		this.returnSum = 0.;
+		this.numSteps = 0;
+	}
+
+	/**
+	 * Takes one step in every lane, where actions[i] is the action int of lane i.
+	 */
+	public void step(int [] actions){
+		for(int i = 0; i < this.x.length; i++){
+			this.stepLane(i, actions[i]);
+		}
+	}
+
+	/**
+	 * Takes one step in every lane, choosing each lane's action from a table indexed by
+	 * {@link #tableIndex(int, int)} of the lane's current state.
+	 */
+	public void stepTable(int [] policyTable){
+		for(int i = 0; i < this.x.length; i++){
+			this.stepLane(i, policyTable[this.tableIndex(this.x[i], this.light[i])]);
+		}
+	}
+
+	protected void stepLane(int i, int action){
+
+		//move; positions outside the map leave the agent in place
+		int nx = this.x[i] + ACTION_DIRS[action];
+		if(nx < 0 || nx >= this.length){
+			nx = this.x[i];
+		}
+
+		//light transition
+		int l = this.light[i];
+		int nl = this.rand.nextDouble() <= this.lightChangeProbs[l] ? this.nextLights[l] : l;
+
+		double r = this.actionRewards[action];
+		boolean term = nx == this.goalx;
+		if(term){
+			r += this.goalReward;
+		}
+		else if(nx == this.lightx && nl == TrafficLightGridWorld.RED){
+			r += this.redLightReward;
+		}
+
+		this.rewards[i] = r;
+		this.terminated[i] = term;
+		this.laneReturns[i] += this.laneDiscounts[i] * r;
+		this.laneDiscounts[i] *= this.gamma;
+		this.laneSteps[i]++;
+		this.numSteps++;
+
+		if(term || this.laneSteps[i] == this.maxEpisodeSteps){
+			//finish the episode and auto-reset the lane
+			this.numEpisodes++;
+			this.returnSum += this.laneReturns[i];
+			this.x[i] = this.initialX;
+			this.light[i] = this.initialLight;
+			this.laneSteps[i] = 0;
+			this.laneReturns[i] = 0.;
+			this.laneDiscounts[i] = 1.;
+		}
+		else{
+			this.x[i] = nx;
+			this.light[i] = nl;
+		}
+	}
+
+	/**
+	 * Index of the state (x, light) in a policy table made by {@link #policyTable(Policy)}.
+	 */
+	public int tableIndex(int x, int light){
+		return x * 3 + light;
+	}
+
+	/**
+	 * Tabulates a policy's action int in every (x, light) state, so it can be run with {@link #stepTable(int[])}.
+	 * Stochastic policies are sampled once per state.
+	 */
+	public int [] policyTable(Policy p){
+		int [] table = new int[this.length * 3];
+		for(int px = 0; px < this.length; px++){
+			for(int l = 0; l < 3; l++){
+				TrafficLightGridState s = new TrafficLightGridState(px, l);
+				if(px == this.goalx || !p.definedFor(s)){
+					continue; //terminal or unknown states are never acted in
+				}
+				table[this.tableIndex(px, l)] = actionInt(p.action(s));
+			}
+		}
+		return table;
+	}
+
+	/**
+	 * Returns the action int of one of the generator's actions.
+	 */
+	public static int actionInt(Action a){
+		int ordinal = OrdinalActionType.ordinal(a, TrafficLightGridWorld.ACTION_NAMES);
+		if(ordinal == -1){
+			throw new IllegalArgumentException("Unknown action " + a.actionName());
+		}
+		return ordinal;
+	}
+
+	public int x(int lane) {
+		return this.x[lane];
+	}
+
+	public int light(int lane) {
+		return this.light[lane];
+	}
+
+	/**
+	 * Reward received by a lane in the last step.
+	 */
+	public double reward(int lane) {
+		return this.rewards[lane];
+	}
+
+	/**
+	 * Whether the last step of a lane reached the goal. The lane has already been reset.
+	 */
+	public boolean terminated(int lane) {
+		return this.terminated[lane];
+	}
+
+	public long numEpisodes() {
+		return this.numEpisodes;
+	}
+
+	public long numSteps() {
+		return this.numSteps;
+	}
+
+	/**
+	 * Mean discounted return of all finished episodes.
+	 */
+	public double meanReturn(){
+		return this.numEpisodes == 0 ? 0. : this.returnSum / this.numEpisodes;
+	}
+
+
+	public static void main(String[] args) {
+
+		TrafficLightGridWorld gen = new TrafficLightGridWorld();
+		gen.setTransitionProbabilities(0.3, 0.9, 0.8);
+		gen.setRewards(20, -20, -1.0, -2.0, -3.0);
+
+		TrafficLightBatchEnvironment env = new TrafficLightBatchEnvironment(gen, 1024, 0, TrafficLightGridWorld.GREEN, 0);
+		env.setGamma(0.99);
+		env.setMaxEpisodeSteps(1000);
+
+		//always drive forward
+		int [] table = new int[env.length * 3];
+		Arrays.fill(table, FORWARD);
+
+		long start = System.nanoTime();
+		for(int t = 0; t < 100000; t++){
+			env.stepTable(table);
+		}
+		double secs = (System.nanoTime() - start) / 1e9;
+
+		System.out.println(env.numSteps() + " steps in " + secs + "s (" + (long)(env.numSteps() / secs) + " steps/s)");
+		System.out.println(env.numEpisodes() + " episodes, mean discounted return " + env.meanReturn());
+	}
+
+}
@@ -4,6 +4,8 @@ import burlap.mdp.core.state.MutableState;
 import burlap.mdp.core.state.StateUtilities;
 import burlap.mdp.core.state.UnknownKeyException;
 import burlap.mdp.core.state.annotations.DeepCopyState;
+import edu.brown.cs.burlap.tutorials.domain.FreezableState;
+import edu.brown.cs.burlap.tutorials.domain.IntState;
 
 import java.util.Arrays;
 import java.util.List;
@@ -16,10 +18,15 @@ import static edu.brown.cs.burlap.tutorials.domain.simple.TrafficLightGridWorld.
  * Based on http://burlap.cs.brown.edu/tutorials/bd/p3.html 
  */
 @DeepCopyState
-public class TrafficLightGridState implements MutableState{
-	// The internal state variables
-	public int x; // Position of the vehicle
-	public int light_state;  // 0 = green, 1 = yellow, 2 = red
+public class TrafficLightGridState implements FreezableState, IntState{
+	// The internal state variables; not public because pooled states are shared and frozen, so
+	// they are written through set or the bean setters, which reject frozen states (the bean
+	// accessors are also what episode files are written and read with)
+	protected int x; // Position of the vehicle
+	protected int light_state;  // 0 = green, 1 = yellow, 2 = red
+
+	// Set when the state is shared, for example by a StatePool
+	protected boolean frozen;
 
 	// Everything below is just Java boilerplate code that constructs/sets/gets
 
@@ -33,8 +40,33 @@ public class TrafficLightGridState implements MutableState{
 		this.light_state = light_state;
 	}
 
+	public int getX() {
+		return x;
+	}
+
+	public void setX(int x) {
+		this.checkNotFrozen();
+		this.x = x;
+	}
+
+	public int getLight_state() {
+		return light_state;
+	}
+
+	public void setLight_state(int light_state) {
+		this.checkNotFrozen();
+		this.light_state = light_state;
+	}
+
+	protected void checkNotFrozen() {
+		if(this.frozen){
+			throw new IllegalStateException("Cannot set a variable of a frozen state; set it on a copy()");
+		}
+	}
+
 	@Override
 	public MutableState set(Object variableKey, Object value) {
+		this.checkNotFrozen();
 		if(variableKey.equals(VAR_X)){
 			this.x = StateUtilities.stringOrNumber(value).intValue();
 		}
@@ -63,6 +95,27 @@ public class TrafficLightGridState implements MutableState{
 		throw new UnknownKeyException(variableKey);
 	}
 
+	@Override
+	public int getInt(Object variableKey) {
+		if(variableKey.equals(VAR_X)){
+			return x;
+		}
+		else if(variableKey.equals(VAR_LIGHT)){
+			return light_state;
+		}
+		throw new UnknownKeyException(variableKey);
+	}
+
+	@Override
+	public void freeze() {
+		this.frozen = true;
+	}
+
+	@Override
+	public boolean isFrozen() {
+		return this.frozen;
+	}
+
 	@Override
 	public TrafficLightGridState copy() {
 			return new TrafficLightGridState(x, light_state);
@@ -4,7 +4,6 @@ import burlap.mdp.auxiliary.DomainGenerator;
 import burlap.mdp.core.StateTransitionProb;
 import burlap.mdp.core.TerminalFunction;
 import burlap.mdp.core.action.Action;
-import burlap.mdp.core.action.UniversalActionType;
 import burlap.mdp.core.state.State;
 import burlap.mdp.singleagent.SADomain;
 import burlap.mdp.singleagent.environment.SimulatedEnvironment;
@@ -15,11 +14,17 @@ import burlap.shell.visual.VisualExplorer;
 import burlap.visualizer.StatePainter;
 import burlap.visualizer.StateRenderLayer;
 import burlap.visualizer.Visualizer;
+import edu.brown.cs.burlap.tutorials.domain.IntState;
+import edu.brown.cs.burlap.tutorials.domain.OrdinalActionType;
+import edu.brown.cs.burlap.tutorials.domain.PackedStateCodec;
+import edu.brown.cs.burlap.tutorials.domain.RandomStreams;
+import edu.brown.cs.burlap.tutorials.domain.StatePool;
 
 import java.awt.*;
 import java.awt.geom.Ellipse2D;
 import java.awt.geom.Rectangle2D;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 /*
@@ -36,6 +41,12 @@ public class TrafficLightGridWorld implements DomainGenerator{
 	public static final String ACTION_FORWARD = "forward";
 	public static final String ACTION_STOP = "stop";
 
+	// Ordinals of the actions, and their names indexed by ordinal
+	public static final int ORDINAL_REVERSE = 0;
+	public static final int ORDINAL_FORWARD = 1;
+	public static final int ORDINAL_STOP = 2;
+	public static final String [] ACTION_NAMES = new String[]{ACTION_REVERSE, ACTION_FORWARD, ACTION_STOP};
+
 	public static final int GREEN = 0;
 	public static final int YELLOW = 1;
 	public static final int RED = 2;
@@ -55,6 +66,31 @@ public class TrafficLightGridWorld implements DomainGenerator{
 		this.lightx = lightx;
 	}
 
+	// Source of randomness for sampled transitions and setter
+	protected RandomStreams randomStreams = new RandomStreams(System.nanoTime());
+	public void setRandomStreams(RandomStreams randomStreams){
+		this.randomStreams = randomStreams;
+	}
+
+	// Codec that packs the states of this world into ints, with just enough bits for its positions and lights
+	public PackedStateCodec packedCodec(){
+		return new PackedStateCodec(new TrafficLightGridState(),
+				new Object[]{VAR_X, VAR_LIGHT},
+				new int[]{PackedStateCodec.bitsFor(this.map[0].length - 1), PackedStateCodec.bitsFor(RED)});
+	}
+
+	// Whether models return shared, frozen states from a StatePool instead of new copies, and setter
+	protected boolean internStates = false;
+	public void setInternStates(boolean internStates){
+		this.internStates = internStates;
+	}
+
+	// Whether generateDomain compiles the transition dynamics into tables, and setter
+	protected boolean compileTransitions = false;
+	public void setCompileTransitions(boolean compileTransitions){
+		this.compileTransitions = compileTransitions;
+	}
+
 	// State transition model
 	protected class TrafficLightStateModel implements FullStateModel{
 		// Transition probability for the light to turn green to yellow
@@ -63,6 +99,11 @@ public class TrafficLightGridWorld implements DomainGenerator{
 		protected double yellowToRedTransitionProb = 0.8; // High
 		// Transition probability for the light to turn red to green.
 		protected double redToGreenTransitionProb = 0.8; // High
+		// Random streams that sampled light transitions draw from
+		protected RandomStreams randomStreams = TrafficLightGridWorld.this.randomStreams;
+		// Pool of the states this model returns, or null to return new copies
+		protected StatePool statePool = TrafficLightGridWorld.this.internStates
+				? new StatePool(TrafficLightGridWorld.this.packedCodec()) : null;
 
 		public TrafficLightStateModel(double greenToYellowTransitionProb,
 									  double yellowToRedTransitionProb,
@@ -78,17 +119,13 @@ public class TrafficLightGridWorld implements DomainGenerator{
 
 		// Map from an action direction to an integer
 		protected int actionDir(Action a){
-			int adir = 0;
-			if(a.actionName().equals(ACTION_STOP)){
-				adir = 0;
+			switch (OrdinalActionType.ordinal(a, ACTION_NAMES)) {
+				case ORDINAL_FORWARD:
+					return 1;
+				case ORDINAL_REVERSE:
+					return -1;
 			}
-			else if(a.actionName().equals(ACTION_FORWARD)){
-				adir = 1;
-			}
-			else if(a.actionName().equals(ACTION_REVERSE)){
-				adir = -1;
-			}			
-			return adir;
+			return 0; // Stop
 		}
 
 		// Helper function for updating the position. It is deterministic.
@@ -131,18 +168,30 @@ public class TrafficLightGridWorld implements DomainGenerator{
 		// Helper function for updating the traffic light
 		protected int lightResult(int currentLight){
 			// Sample the traffic light transition with a random roll
-			double r = Math.random(); // Number from 0 to 1
+			double r = randomStreams.nextDouble(); // Number from 0 to 1, from the calling thread's stream
 			if (r <= lightChangeProbability(currentLight)) {
 				return nextLightTransition(currentLight);
 			}
 			return currentLight;
 		}		
 
+		// Helper function that gives the state with a new position and light: the pooled
+		// state if states are interned, otherwise a modified copy
+		protected TrafficLightGridState resultState(TrafficLightGridState gs, int newX, int newLight){
+			if (statePool != null) {
+				PackedStateCodec codec = statePool.getCodec();
+				return (TrafficLightGridState)statePool.get(codec.with(codec.with(0L, 0, newX), 1, newLight));
+			}
+			TrafficLightGridState newState = gs.copy();
+			newState.x = newX;
+			newState.light_state = newLight;
+			return newState;
+		}
+
 		// Function to sample the state transitions
 		@Override
 		public State sample(State s, Action a) {
 			// Get the current state variables
-			s = s.copy();
 			TrafficLightGridState gs = (TrafficLightGridState)s;
 			int currentX = gs.x;
 			int currentLight = gs.light_state;
@@ -156,12 +205,8 @@ public class TrafficLightGridWorld implements DomainGenerator{
 			// Update the light state randomly
 			int newLight = lightResult(currentLight);
 
-			//set the new position
-			gs.x = newX;
-			gs.light_state = newLight;
-
-			//return the state we just modified
-			return gs;
+			// Return the state with the new position and light
+			return resultState(gs, newX, newLight);
 		}
 
 		// Function to return all the state transitions
@@ -183,17 +228,13 @@ public class TrafficLightGridWorld implements DomainGenerator{
 			
 			// State with current traffic light 
 			if (lightChangeProbability(currentLight) != 1.0) {
-				TrafficLightGridState newState = gs.copy();
-				newState.x = newX;
-				newState.light_state = currentLight;
+				TrafficLightGridState newState = resultState(gs, newX, currentLight);
 				transitionProbabilities.add(new StateTransitionProb(newState, 
 											1.0 - lightChangeProbability(currentLight)));
 			}
 			// State with transitioned traffic light 
 			if (lightChangeProbability(currentLight) != 0.0) {
-				TrafficLightGridState newState = gs.copy();
-				newState.x = newX;
-				newState.light_state = nextLightTransition(currentLight);
+				TrafficLightGridState newState = resultState(gs, newX, nextLightTransition(currentLight));
 				transitionProbabilities.add(new StateTransitionProb(newState, 
 											lightChangeProbability(currentLight)));
 			}
@@ -201,6 +242,145 @@ public class TrafficLightGridWorld implements DomainGenerator{
 		}
 	}
 
+	// State transition model with the outcome distribution of every (x, light, action) compiled into
+	// flat arrays when it is built. Sampling is an alias method draw and stateTransitions returns a
+	// precomputed list. Outcome states are shared and frozen, so callers must copy a returned state
+	// before modifying it.
+	protected class CompiledTrafficLightStateModel extends TrafficLightStateModel{
+		// Number of cells
+		protected int length = TrafficLightGridWorld.this.map[0].length;
+		// Most outcomes of any (x, light, action): the light stays or changes
+		protected int maxOutcomes = 2;
+		// Number of outcomes of each entry; the outcomes of entry i are in slots i * maxOutcomes and up
+		protected int [] numOutcomes;
+		protected TrafficLightGridState [] outcomeStates;
+		// Alias tables: a draw landing in slot k keeps outcome k with probability aliasProbs[k], otherwise takes outcome aliases[k]
+		protected double [] aliasProbs;
+		protected int [] aliases;
+		// Unmodifiable transition list of each entry
+		protected List<List<StateTransitionProb>> transitionLists;
+
+		public CompiledTrafficLightStateModel(double greenToYellowTransitionProb,
+											  double yellowToRedTransitionProb,
+											  double redToGreenTransitionProb) {
+			super(greenToYellowTransitionProb, yellowToRedTransitionProb, redToGreenTransitionProb);
+			compile();
+		}
+
+		// Index of the entry of a position, light and action ordinal
+		protected int entry(int x, int light, int action){
+			return (x * 3 + light) * ACTION_NAMES.length + action;
+		}
+
+		// Enumerates the outcomes of every entry with the uncompiled model and builds their alias tables
+		protected void compile(){
+			int numEntries = length * 3 * ACTION_NAMES.length;
+			numOutcomes = new int[numEntries];
+			outcomeStates = new TrafficLightGridState[numEntries * maxOutcomes];
+			aliasProbs = new double[numEntries * maxOutcomes];
+			aliases = new int[numEntries * maxOutcomes];
+			transitionLists = new ArrayList<List<StateTransitionProb>>(numEntries);
+
+			for (int x = 0; x < length; x++) {
+				for (int light = 0; light < 3; light++) {
+					for (int a = 0; a < ACTION_NAMES.length; a++) {
+						int i = entry(x, light, a);
+						int base = i * maxOutcomes;
+						List<StateTransitionProb> tps = super.stateTransitions(new TrafficLightGridState(x, light),
+								new OrdinalActionType.OrdinalAction(ACTION_NAMES[a], a));
+						double [] probs = new double[tps.size()];
+						for (int k = 0; k < tps.size(); k++) {
+							TrafficLightGridState ns = (TrafficLightGridState)tps.get(k).s;
+							ns.freeze();
+							outcomeStates[base + k] = ns;
+							probs[k] = tps.get(k).p;
+						}
+						numOutcomes[i] = tps.size();
+						buildAliasTable(probs, base);
+						transitionLists.add(Collections.unmodifiableList(tps));
+					}
+				}
+			}
+		}
+
+		// Vose's alias method: splits the n outcome probabilities into n slots of mass 1/n, each shared by
+		// at most two outcomes
+		protected void buildAliasTable(double [] probs, int base){
+			int n = probs.length;
+			double [] scaled = new double[n];
+			int [] small = new int[n];
+			int [] large = new int[n];
+			int numSmall = 0;
+			int numLarge = 0;
+			for (int k = 0; k < n; k++) {
+				scaled[k] = probs[k] * n;
+				if (scaled[k] < 1.0) {
+					small[numSmall++] = k;
+				} else {
+					large[numLarge++] = k;
+				}
+			}
+			while (numSmall > 0 && numLarge > 0) {
+				int l = small[--numSmall];
+				int g = large[--numLarge];
+				aliasProbs[base + l] = scaled[l];
+				aliases[base + l] = g;
+				scaled[g] = (scaled[g] + scaled[l]) - 1.0;
+				if (scaled[g] < 1.0) {
+					small[numSmall++] = g;
+				} else {
+					large[numLarge++] = g;
+				}
+			}
+			// Whatever is left has probability 1 up to rounding
+			while (numLarge > 0) {
+				int g = large[--numLarge];
+				aliasProbs[base + g] = 1.0;
+				aliases[base + g] = g;
+			}
+			while (numSmall > 0) {
+				int l = small[--numSmall];
+				aliasProbs[base + l] = 1.0;
+				aliases[base + l] = l;
+			}
+		}
+
+		// Entry of a state and action, or -1 if they are outside the compiled tables
+		protected int entry(State s, Action a){
+			TrafficLightGridState gs = (TrafficLightGridState)s;
+			int action = OrdinalActionType.ordinal(a, ACTION_NAMES);
+			if (gs.x < 0 || gs.x >= length || gs.light_state < 0 || gs.light_state > RED || action == -1) {
+				return -1;
+			}
+			return entry(gs.x, gs.light_state, action);
+		}
+
+		@Override
+		public State sample(State s, Action a) {
+			int i = entry(s, a);
+			if (i == -1) {
+				return super.sample(s, a);
+			}
+			int base = i * maxOutcomes;
+			// One uniform picks both the slot and whether to take its alias
+			double u = randomStreams.nextDouble() * numOutcomes[i];
+			int k = (int)u;
+			if (u - k >= aliasProbs[base + k]) {
+				k = aliases[base + k];
+			}
+			return outcomeStates[base + k];
+		}
+
+		@Override
+		public List<StateTransitionProb> stateTransitions(State s, Action a) {
+			int i = entry(s, a);
+			if (i == -1) {
+				return super.stateTransitions(s, a);
+			}
+			return transitionLists.get(i);
+		}
+	}
+
 	// Termination function
 	public static class ExampleTF implements TerminalFunction {
 		int goalX;
@@ -210,7 +390,7 @@ public class TrafficLightGridWorld implements DomainGenerator{
 
 		@Override
 		public boolean isTerminal(State s) {
-			int x = (Integer)s.get(VAR_X);
+			int x = IntState.Helper.getInt(s, VAR_X);
 			return (x == this.goalX);
 		}
 
@@ -249,17 +429,21 @@ public class TrafficLightGridWorld implements DomainGenerator{
 
 		@Override
 		public double reward(State s, Action a, State sprime) {
-			int resultX = (Integer)sprime.get(VAR_X);
-			int resultLight = (Integer)sprime.get(VAR_LIGHT);
+			int resultX = IntState.Helper.getInt(sprime, VAR_X);
+			int resultLight = IntState.Helper.getInt(sprime, VAR_LIGHT);
 
 			double actionReward = 0.0;
-			if (a.actionName().equals(ACTION_STOP)) {
-				actionReward = this.stopReward;
-			} else if (a.actionName().equals(ACTION_FORWARD)) { 
-				actionReward = this.forwardReward;
-			} else if (a.actionName().equals(ACTION_REVERSE)) {
-				actionReward = this.reverseReward;
-			} 
+			switch (OrdinalActionType.ordinal(a, ACTION_NAMES)) {
+				case ORDINAL_STOP:
+					actionReward = this.stopReward;
+					break;
+				case ORDINAL_FORWARD:
+					actionReward = this.forwardReward;
+					break;
+				case ORDINAL_REVERSE:
+					actionReward = this.reverseReward;
+					break;
+			}
 
 			if (resultX == this.goalX){
 				return this.goalReward + actionReward;
@@ -307,14 +491,19 @@ public class TrafficLightGridWorld implements DomainGenerator{
 	public SADomain generateDomain() {
 		SADomain domain = new SADomain();
 		domain.addActionTypes(
-				new UniversalActionType(ACTION_REVERSE),
-				new UniversalActionType(ACTION_FORWARD),
-				new UniversalActionType(ACTION_STOP));
-
-		TrafficLightStateModel smodel = new TrafficLightStateModel(
-			this.greenToYellowTransitionProb,
-			this.yellowToRedTransitionProb,
-			this.redToGreenTransitionProb);
+				new OrdinalActionType(ACTION_REVERSE, ORDINAL_REVERSE),
+				new OrdinalActionType(ACTION_FORWARD, ORDINAL_FORWARD),
+				new OrdinalActionType(ACTION_STOP, ORDINAL_STOP));
+
+		TrafficLightStateModel smodel = this.compileTransitions
+			? new CompiledTrafficLightStateModel(
+				this.greenToYellowTransitionProb,
+				this.yellowToRedTransitionProb,
+				this.redToGreenTransitionProb)
+			: new TrafficLightStateModel(
+				this.greenToYellowTransitionProb,
+				this.yellowToRedTransitionProb,
+				this.redToGreenTransitionProb);
 		RewardFunction rf = new ExampleRF(this.goalx,
 										  this.lightx,
 										  this.goalReward,
@@ -342,7 +531,7 @@ public class TrafficLightGridWorld implements DomainGenerator{
 			float width = cWidth / fWidth;
 			float height = cHeight / fHeight;
 
-			int light = (Integer)s.get(VAR_LIGHT);
+			int light = IntState.Helper.getInt(s, VAR_LIGHT);
 			// Draw the intersection
 			{	
 				switch (light) { // Set the color
@@ -410,7 +599,7 @@ public class TrafficLightGridWorld implements DomainGenerator{
 			float width = cWidth / fWidth;
 			float height = cHeight / fHeight;
 
-			int ax = (Integer)s.get(VAR_X);
+			int ax = IntState.Helper.getInt(s, VAR_X);
 			int ay = 0;
 
 			// left coordinate of cell on our canvas
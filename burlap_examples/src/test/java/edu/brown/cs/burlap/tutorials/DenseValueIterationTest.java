@@ -0,0 +1,92 @@
+package edu.brown.cs.burlap.tutorials;
+
+import burlap.behavior.valuefunction.ConstantValueFunction;
+import burlap.domain.singleagent.gridworld.GridWorldDomain;
+import burlap.domain.singleagent.gridworld.GridWorldTerminalFunction;
+import burlap.domain.singleagent.gridworld.state.GridAgent;
+import burlap.domain.singleagent.gridworld.state.GridWorldState;
+import burlap.mdp.core.state.State;
+import burlap.mdp.singleagent.SADomain;
+import burlap.statehashing.simple.SimpleHashableStateFactory;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class DenseValueIterationTest {
+
+	protected SADomain domain;
+	protected State initialState;
+
+	@Before
+	public void setUp(){
+		GridWorldDomain gwd = new GridWorldDomain(11, 11);
+		gwd.setMapToFourRooms();
+		gwd.setProbSucceedTransitionDynamics(0.8);
+		gwd.setTf(new GridWorldTerminalFunction(10, 10));
+		this.domain = gwd.generateDomain();
+		this.initialState = new GridWorldState(new GridAgent(0, 0));
+	}
+
+	@Test
+	public void convergesToTheValuesOfVITutorial(){
+		//both sweep in place but in different state orders, so compare converged values
+		VITutorial reference = new VITutorial(this.domain, 0.9, new SimpleHashableStateFactory(),
+				new ConstantValueFunction(0.0), 500);
+		reference.planFromState(this.initialState);
+
+		DenseValueIteration dense = new DenseValueIteration(this.domain, 0.9, new SimpleHashableStateFactory(),
+				new ConstantValueFunction(0.0), 500);
+		dense.planFromState(this.initialState);
+
+		DenseMDP mdp = dense.getDenseMDP();
+		assertTrue(mdp.numStates() > 1);
+		for(int s = 0; s < mdp.numStates(); s++){
+			State st = mdp.state(s);
+			assertEquals(reference.value(st), dense.value(st), 1e-9);
+		}
+	}
+
+	@Test
+	public void secondSeedKeepsEarlierStates(){
+		//wall off the right half so that the two seeds reach disjoint regions
+		GridWorldDomain gwd = new GridWorldDomain(11, 11);
+		for(int y = 0; y < 11; y++){
+			gwd.setObstacleInCell(5, y);
+		}
+		gwd.setTf(new GridWorldTerminalFunction(10, 10));
+		SADomain split = gwd.generateDomain();
+		State left = new GridWorldState(new GridAgent(0, 0));
+		State right = new GridWorldState(new GridAgent(10, 0));
+
+		DenseValueIteration vi = new DenseValueIteration(split, 0.9, new SimpleHashableStateFactory(),
+				new ConstantValueFunction(0.0), 50);
+		vi.planFromState(left);
+		DenseMDP mdp = vi.getDenseMDP();
+		int numLeft = mdp.numStates();
+		int numLeftSA = mdp.numStateActions();
+		int leftId = mdp.stateId(left);
+		mdp.ensurePredecessors();
+
+		//the right region is appended to the same compiled MDP; the left rows are not rebuilt
+		vi.planFromState(right);
+		assertSame(mdp, vi.getDenseMDP());
+		assertEquals(leftId, mdp.stateId(left));
+		assertEquals(numLeftSA, mdp.saEnd(numLeft - 1));
+		int rightId = mdp.stateId(right);
+		assertTrue(rightId >= numLeft);
+
+		//the predecessor index now covers the appended states
+		assertTrue(mdp.predEnd(rightId) > mdp.predStart(rightId));
+	}
+
+	@Test
+	public void frozenPolicyBeforePlanningIsEmpty(){
+		DenseValueIteration vi = new DenseValueIteration(this.domain, 0.9, new SimpleHashableStateFactory(),
+				new ConstantValueFunction(0.0), 10);
+		assertEquals(0, vi.frozenPolicy().size());
+	}
+
+}
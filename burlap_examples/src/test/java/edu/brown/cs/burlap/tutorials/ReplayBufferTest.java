@@ -0,0 +1,63 @@
+package edu.brown.cs.burlap.tutorials;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ReplayBufferTest {
+
+	@Test
+	public void overwritesTheOldestTransitionsOnceFull(){
+		ReplayBuffer buffer = new ReplayBuffer(3);
+		for(int t = 0; t < 5; t++){
+			buffer.add(t, t % 2, -t, t + 1, t == 4);
+		}
+
+		assertEquals(3, buffer.size());
+		assertEquals(3, buffer.capacity());
+
+		//transitions 3 and 4 replaced 0 and 1; 2 is still in its slot
+		int [] expected = new int[]{3, 4, 2};
+		for(int i = 0; i < 3; i++){
+			int t = expected[i];
+			assertEquals(t, buffer.state(i));
+			assertEquals(t % 2, buffer.action(i));
+			assertEquals(-t, buffer.reward(i), 0.);
+			assertEquals(t + 1, buffer.nextState(i));
+			assertEquals(t == 4, buffer.terminal(i));
+		}
+	}
+
+	@Test
+	public void samplesOnlyStoredTransitions(){
+		ReplayBuffer buffer = new ReplayBuffer(10);
+		buffer.add(0, 0, 0., 1, false);
+		buffer.add(1, 0, 0., 2, true);
+		Random rand = new Random(0);
+		for(int i = 0; i < 100; i++){
+			int t = buffer.sample(rand);
+			assertTrue(t >= 0 && t < 2);
+		}
+	}
+
+	@Test
+	public void clearEmptiesTheBuffer(){
+		ReplayBuffer buffer = new ReplayBuffer(2);
+		buffer.add(0, 0, 0., 1, false);
+		buffer.clear();
+		assertEquals(0, buffer.size());
+		buffer.add(5, 1, 1., -1, true);
+		assertEquals(1, buffer.size());
+		assertEquals(5, buffer.state(0));
+		assertTrue(buffer.terminal(0));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void rejectsZeroCapacity(){
+		new ReplayBuffer(0);
+	}
+
+}
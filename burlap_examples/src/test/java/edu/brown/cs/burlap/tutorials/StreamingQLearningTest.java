@@ -0,0 +1,57 @@
+package edu.brown.cs.burlap.tutorials;
+
+import burlap.behavior.singleagent.Episode;
+import burlap.behavior.singleagent.learning.tdmethods.QLearning;
+import burlap.debugtools.RandomFactory;
+import burlap.domain.singleagent.gridworld.GridWorldDomain;
+import burlap.domain.singleagent.gridworld.GridWorldTerminalFunction;
+import burlap.domain.singleagent.gridworld.state.GridAgent;
+import burlap.domain.singleagent.gridworld.state.GridWorldState;
+import burlap.mdp.core.state.State;
+import burlap.mdp.singleagent.SADomain;
+import burlap.mdp.singleagent.environment.SimulatedEnvironment;
+import burlap.statehashing.simple.SimpleHashableStateFactory;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+public class StreamingQLearningTest {
+
+	@Test
+	public void learnsLikeQLearningWithAndWithoutRecords(){
+		GridWorldDomain gwd = new GridWorldDomain(11, 11);
+		gwd.setMapToFourRooms();
+		gwd.setProbSucceedTransitionDynamics(1.0);
+		gwd.setTf(new GridWorldTerminalFunction(10, 10));
+		SADomain domain = gwd.generateDomain();
+		State s = new GridWorldState(new GridAgent(0, 0));
+
+		QLearning expected = new QLearning(domain, 0.99, new SimpleHashableStateFactory(), 0., 0.3);
+		expected.setLearningPolicy(new QLTutorial.SeededEpsilonGreedy(expected, 0.1, new Random(3)));
+		RandomFactory.seedMapped(0, 9);
+		SimulatedEnvironment env = new SimulatedEnvironment(domain, s);
+		int [] steps = new int[30];
+		for(int i = 0; i < steps.length; i++){
+			steps[i] = expected.runLearningEpisode(env).maxTimeStep();
+			env.resetEnvironment();
+		}
+
+		StreamingQLearning actual = new StreamingQLearning(domain, 0.99, new SimpleHashableStateFactory(), 0., 0.3);
+		actual.setLearningPolicy(new QLTutorial.SeededEpsilonGreedy(actual, 0.1, new Random(3)));
+		RandomFactory.seedMapped(0, 9);
+		env = new SimulatedEnvironment(domain, s);
+		for(int i = 0; i < steps.length; i++){
+			Episode record = i % 3 == 0 ? new Episode(env.currentObservation()) : null;
+			assertEquals(steps[i], actual.runLearningEpisode(env, -1, record));
+			if(record != null){
+				assertEquals(steps[i], record.maxTimeStep());
+			}
+			env.resetEnvironment();
+		}
+
+		assertEquals(expected.value(s), actual.value(s), 0.);
+	}
+
+}
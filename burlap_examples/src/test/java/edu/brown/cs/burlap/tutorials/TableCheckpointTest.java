@@ -0,0 +1,113 @@
+package edu.brown.cs.burlap.tutorials;
+
+import burlap.mdp.core.action.Action;
+import burlap.mdp.core.action.ActionType;
+import burlap.mdp.singleagent.SADomain;
+import burlap.statehashing.HashableState;
+import burlap.statehashing.HashableStateFactory;
+import burlap.statehashing.simple.SimpleHashableStateFactory;
+import edu.brown.cs.burlap.tutorials.domain.simple.EXGridState;
+import edu.brown.cs.burlap.tutorials.domain.simple.ExampleGridWorld;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+public class TableCheckpointTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	protected SADomain domain;
+	protected HashableStateFactory hashingFactory = new SimpleHashableStateFactory();
+	protected IntStateCodec codec = new IntStateCodec(new EXGridState());
+
+	@Before
+	public void setUp(){
+		this.domain = new ExampleGridWorld().generateDomain();
+	}
+
+	@Test
+	public void valueFunctionRoundTrip() throws IOException {
+		Map<HashableState, Double> values = new HashMap<HashableState, Double>();
+		for(int x = 0; x < 4; x++){
+			for(int y = 0; y < 3; y++){
+				values.put(this.hashingFactory.hashState(new EXGridState(x, y)), x * 10. + y - 0.5);
+			}
+		}
+
+		String path = this.folder.newFile("vf.bin").getPath();
+		TableCheckpoint.writeValueFunction(path, this.codec, values);
+
+		Map<HashableState, Double> read = new HashMap<HashableState, Double>();
+		TableCheckpoint.readValueFunction(path, this.codec, this.hashingFactory, read);
+		assertEquals(values, read);
+	}
+
+	@Test
+	public void qTableRoundTrip() throws IOException {
+		List<Action> actions = new ArrayList<Action>();
+		for(ActionType t : this.domain.getActionTypes()){
+			actions.addAll(t.allApplicableActions(new EXGridState()));
+		}
+
+		//states with different numbers of actions, so slots do not line up with states
+		QTable table = new QTable();
+		for(int s = 0; s < 5; s++){
+			List<Action> stateActions = actions.subList(0, 1 + s % actions.size());
+			double [] qs = new double[stateActions.size()];
+			for(int i = 0; i < qs.length; i++){
+				qs[i] = s - 0.25 * i;
+			}
+			table.addState(this.hashingFactory.hashState(new EXGridState(s, s + 1)), stateActions, qs);
+		}
+
+		String path = this.folder.newFile("q.bin").getPath();
+		TableCheckpoint.writeQTable(path, this.codec, table);
+		QTable read = TableCheckpoint.readQTable(path, this.codec, this.hashingFactory, this.domain);
+
+		assertEquals(table.numStates(), read.numStates());
+		assertEquals(table.numSlots(), read.numSlots());
+		for(int s = 0; s < table.numStates(); s++){
+			int rs = read.stateId(table.hashedState(s));
+			assertNotEquals(-1, rs);
+			assertEquals(table.slotEnd(s) - table.slotStart(s), read.slotEnd(rs) - read.slotStart(rs));
+			for(int j = table.slotStart(s); j < table.slotEnd(s); j++){
+				int rj = read.slot(rs, read.findActionOrdinal(table.slotAction(j)));
+				assertNotEquals(-1, rj);
+				assertEquals(table.q(j), read.q(rj), 0.);
+			}
+			assertEquals(table.maxQ(s), read.maxQ(rs), 0.);
+		}
+	}
+
+	@Test(expected = RuntimeException.class)
+	public void truncatedQTableIsRejected() throws IOException {
+		QTable table = new QTable();
+		List<Action> actions = this.domain.getActionTypes().get(0).allApplicableActions(new EXGridState());
+		table.addState(this.hashingFactory.hashState(new EXGridState(1, 1)), actions, new double[]{2.});
+
+		File file = this.folder.newFile("truncated.bin");
+		TableCheckpoint.writeQTable(file.getPath(), this.codec, table);
+		RandomAccessFile raf = new RandomAccessFile(file, "rw");
+		try{
+			raf.setLength(raf.length() - 12);
+		} finally{
+			raf.close();
+		}
+
+		TableCheckpoint.readQTable(file.getPath(), this.codec, this.hashingFactory, this.domain);
+	}
+
+}
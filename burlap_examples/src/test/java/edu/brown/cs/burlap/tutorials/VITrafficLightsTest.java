@@ -0,0 +1,54 @@
+package edu.brown.cs.burlap.tutorials;
+
+import burlap.behavior.valuefunction.ConstantValueFunction;
+import burlap.domain.singleagent.gridworld.GridWorldDomain;
+import burlap.domain.singleagent.gridworld.GridWorldTerminalFunction;
+import burlap.domain.singleagent.gridworld.state.GridAgent;
+import burlap.domain.singleagent.gridworld.state.GridWorldState;
+import burlap.mdp.core.state.State;
+import burlap.mdp.singleagent.SADomain;
+import burlap.statehashing.simple.SimpleHashableStateFactory;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class VITrafficLightsTest {
+
+	@Test
+	public void parallelValuesDoNotDependOnTheNumberOfThreads(){
+		//large enough that four threads split each sweep into several chunks
+		GridWorldDomain gwd = new GridWorldDomain(30, 30);
+		gwd.setProbSucceedTransitionDynamics(0.8);
+		gwd.setTf(new GridWorldTerminalFunction(29, 29));
+		SADomain domain = gwd.generateDomain();
+		State initialState = new GridWorldState(new GridAgent(0, 0));
+
+		//few enough sweeps that the values have not converged yet
+		//one thread sweeps in place, so compare two threads with four
+		VITrafficLights two = new VITrafficLights(domain, 0.99, new SimpleHashableStateFactory(),
+				new ConstantValueFunction(0.0), 20);
+		two.setNumThreads(2);
+		two.planFromState(initialState);
+
+		VITrafficLights parallel = new VITrafficLights(domain, 0.99, new SimpleHashableStateFactory(),
+				new ConstantValueFunction(0.0), 20);
+		parallel.setNumThreads(4);
+		parallel.planFromState(initialState);
+
+		//every cell of the open grid is reachable
+		for(int x = 0; x < 30; x++){
+			for(int y = 0; y < 30; y++){
+				State s = new GridWorldState(new GridAgent(x, y));
+				assertEquals(two.value(s), parallel.value(s), 0.);
+			}
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void rejectsFewerThanOneThread(){
+		GridWorldDomain gwd = new GridWorldDomain(2, 2);
+		new VITrafficLights(gwd.generateDomain(), 0.99, new SimpleHashableStateFactory(),
+				new ConstantValueFunction(0.0), 20).setNumThreads(0);
+	}
+
+}
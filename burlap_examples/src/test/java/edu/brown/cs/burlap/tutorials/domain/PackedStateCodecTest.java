@@ -0,0 +1,69 @@
+package edu.brown.cs.burlap.tutorials.domain;
+
+import burlap.mdp.core.state.State;
+import edu.brown.cs.burlap.tutorials.domain.simple.TrafficLight2DGridState;
+import edu.brown.cs.burlap.tutorials.domain.simple.TrafficLight2DGridWorld;
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class PackedStateCodecTest {
+
+	@Test
+	public void encodeDecodeRoundTrip(){
+		TrafficLight2DGridWorld gen = new TrafficLight2DGridWorld(13, 6);
+		PackedStateCodec codec = gen.packedCodec();
+		assertTrue(codec.fitsInt());
+
+		Set<Long> codes = new HashSet<Long>();
+		for(int x = 0; x < 13; x++){
+			for(int y = 0; y < 6; y++){
+				for(int l0 = 0; l0 < 3; l0++){
+					for(int l1 = 0; l1 < 3; l1++){
+						State s = new TrafficLight2DGridState(x, y, l0, l1);
+						long code = codec.encode(s);
+						assertTrue(codes.add(code));
+
+						State d = codec.decode(code);
+						for(Object key : codec.getKeys()){
+							assertEquals(IntState.Helper.getInt(s, key), IntState.Helper.getInt(d, key));
+						}
+						assertEquals(code, codec.encode(d));
+					}
+				}
+			}
+		}
+	}
+
+	@Test
+	public void withChangesOnlyOneVariable(){
+		PackedStateCodec codec = new TrafficLight2DGridWorld(13, 6).packedCodec();
+		long code = codec.encode(new TrafficLight2DGridState(12, 5, 2, 1));
+		long changed = codec.with(code, 1, 3);
+		assertEquals(12, codec.value(changed, 0));
+		assertEquals(3, codec.value(changed, 1));
+		assertEquals(2, codec.value(changed, 2));
+		assertEquals(1, codec.value(changed, 3));
+	}
+
+	@Test
+	public void bitsForCoversTheValueRange(){
+		assertEquals(1, PackedStateCodec.bitsFor(0));
+		assertEquals(1, PackedStateCodec.bitsFor(1));
+		assertEquals(2, PackedStateCodec.bitsFor(2));
+		assertEquals(4, PackedStateCodec.bitsFor(12));
+		assertEquals(4, PackedStateCodec.bitsFor(15));
+		assertEquals(5, PackedStateCodec.bitsFor(16));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void rejectsValuesThatDoNotFit(){
+		PackedStateCodec codec = new TrafficLight2DGridWorld(13, 6).packedCodec();
+		codec.encode(new TrafficLight2DGridState(16, 0, 0, 0));
+	}
+
+}
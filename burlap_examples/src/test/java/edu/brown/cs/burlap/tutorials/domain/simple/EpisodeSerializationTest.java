@@ -0,0 +1,77 @@
+package edu.brown.cs.burlap.tutorials.domain.simple;
+
+import burlap.behavior.singleagent.Episode;
+import burlap.mdp.core.action.Action;
+import burlap.mdp.core.action.SimpleAction;
+import burlap.mdp.singleagent.SADomain;
+import edu.brown.cs.burlap.tutorials.domain.IntState;
+import edu.brown.cs.burlap.tutorials.domain.OrdinalActionType;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+
+import static org.junit.Assert.assertEquals;
+
+public class EpisodeSerializationTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void trafficLightEpisodeRoundTrips() throws Exception {
+		TrafficLightGridState s0 = new TrafficLightGridState(0, 0);
+		TrafficLightGridState s1 = new TrafficLightGridState(1, 2);
+		s1.freeze();
+
+		Episode e = new Episode(s0);
+		e.transition(new SimpleAction("forward"), s1, -1.);
+
+		String path = new File(folder.getRoot(), "tl.episode").getAbsolutePath();
+		e.write(path);
+		Episode read = Episode.read(path);
+
+		assertEquals(2, read.stateSequence.size());
+		assertEquals("forward", read.action(0).actionName());
+		assertEquals(-1., read.reward(1), 0.);
+		assertEquals(1, ((IntState)read.state(1)).getInt(TrafficLightGridWorld.VAR_X));
+		assertEquals(2, ((IntState)read.state(1)).getInt(TrafficLightGridWorld.VAR_LIGHT));
+	}
+
+	@Test
+	public void exampleGridEpisodeRoundTrips() throws Exception {
+		Episode e = new Episode(new EXGridState(0, 0));
+		e.transition(new SimpleAction(ExampleGridWorld.ACTION_NORTH), new EXGridState(0, 1), -1.);
+
+		String path = new File(folder.getRoot(), "ex.episode").getAbsolutePath();
+		e.write(path);
+		Episode read = Episode.read(path);
+
+		assertEquals(0, ((IntState)read.state(1)).getInt(ExampleGridWorld.VAR_X));
+		assertEquals(1, ((IntState)read.state(1)).getInt(ExampleGridWorld.VAR_Y));
+	}
+
+	@Test
+	public void domainActionsRoundTripWithOrdinals() throws Exception {
+		SADomain domain = new TrafficLightGridWorld().generateDomain();
+		Action forward = domain.getAction(TrafficLightGridWorld.ACTION_NAMES[1]).associatedAction("");
+
+		Episode e = new Episode(new TrafficLightGridState(0, 0));
+		e.transition(forward, new TrafficLightGridState(1, 0), -1.);
+
+		String path = new File(folder.getRoot(), "ordinal.episode").getAbsolutePath();
+		e.write(path);
+		Episode read = Episode.read(path);
+
+		assertEquals(forward, read.action(0));
+		assertEquals(1, OrdinalActionType.ordinal(read.action(0), TrafficLightGridWorld.ACTION_NAMES));
+	}
+
+	@Test
+	public void committedEpisodeLoads() {
+		Episode read = Episode.read("output/pi.episode");
+		assertEquals(read.actionSequence.size() + 1, read.stateSequence.size());
+	}
+
+}
@@ -0,0 +1,99 @@
+package edu.brown.cs.burlap.tutorials.domain.simple;
+
+import burlap.mdp.core.action.Action;
+import burlap.mdp.core.action.ActionType;
+import burlap.mdp.core.state.State;
+import burlap.mdp.singleagent.SADomain;
+import burlap.mdp.singleagent.model.FullModel;
+import burlap.mdp.singleagent.model.TransitionProb;
+import edu.brown.cs.burlap.tutorials.domain.IntState;
+import edu.brown.cs.burlap.tutorials.domain.RandomStreams;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TrafficLightGridWorldTest {
+
+	protected SADomain generate(boolean compile){
+		TrafficLightGridWorld gen = new TrafficLightGridWorld();
+		gen.setTransitionProbabilities(0.3, 0.9, 0.6);
+		gen.setRandomStreams(new RandomStreams(0));
+		gen.setCompileTransitions(compile);
+		return gen.generateDomain();
+	}
+
+	protected List<Action> actions(SADomain domain, State s){
+		List<Action> actions = new ArrayList<Action>();
+		for(ActionType t : domain.getActionTypes()){
+			actions.addAll(t.allApplicableActions(s));
+		}
+		return actions;
+	}
+
+	@Test
+	public void compiledTransitionsMatchUncompiled(){
+		SADomain plain = this.generate(false);
+		SADomain compiled = this.generate(true);
+
+		for(int x = 0; x < 11; x++){
+			for(int light = 0; light < 3; light++){
+				State s = new TrafficLightGridState(x, light);
+				for(Action a : this.actions(plain, s)){
+					List<TransitionProb> expected = ((FullModel)plain.getModel()).transitions(s, a);
+					List<TransitionProb> actual = ((FullModel)compiled.getModel()).transitions(s, a);
+					assertEquals(expected.size(), actual.size());
+					for(TransitionProb tp : expected){
+						TransitionProb match = find(actual, tp.eo.op);
+						assertEquals(tp.p, match.p, 1e-12);
+						assertEquals(tp.eo.r, match.eo.r, 0.);
+						assertEquals(tp.eo.terminated, match.eo.terminated);
+					}
+				}
+			}
+		}
+	}
+
+	@Test
+	public void compiledSamplesFollowTheTransitionProbabilities(){
+		SADomain compiled = this.generate(true);
+		FullModel model = (FullModel)compiled.getModel();
+		State s = new TrafficLightGridState(3, TrafficLightGridWorld.GREEN);
+		Action forward = compiled.getAction(TrafficLightGridWorld.ACTION_FORWARD).associatedAction("");
+
+		List<TransitionProb> tps = model.transitions(s, forward);
+		int [] counts = new int[tps.size()];
+		int n = 20000;
+		for(int i = 0; i < n; i++){
+			State ns = model.sample(s, forward).op;
+			int k = tps.indexOf(find(tps, ns));
+			assertTrue(k >= 0);
+			counts[k]++;
+		}
+		for(int k = 0; k < tps.size(); k++){
+			assertEquals(tps.get(k).p, counts[k] / (double)n, 0.02);
+		}
+	}
+
+	protected static TransitionProb find(List<TransitionProb> tps, State s){
+		for(TransitionProb tp : tps){
+			if(sameVariables(tp.eo.op, s)){
+				return tp;
+			}
+		}
+		throw new AssertionError("No outcome " + s);
+	}
+
+	protected static boolean sameVariables(State a, State b){
+		for(Object key : a.variableKeys()){
+			if(IntState.Helper.getInt(a, key) != IntState.Helper.getInt(b, key)){
+				return false;
+			}
+		}
+		return true;
+	}
+
+}